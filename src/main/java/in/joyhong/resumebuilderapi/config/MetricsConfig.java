@@ -0,0 +1,15 @@
+package in.joyhong.resumebuilderapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Metric defaults (Prometheus exposure, histogram buckets) live in
+ * {@code metrics-defaults.properties}. Mongo command latency comes from the
+ * driver listener Spring Boot registers, {@code mongodb.driver.commands},
+ * tagged by command and collection.
+ */
+@Configuration
+@PropertySource("classpath:metrics-defaults.properties")
+public class MetricsConfig {
+}
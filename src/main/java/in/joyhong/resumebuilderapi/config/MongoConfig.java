@@ -1,9 +1,18 @@
 package in.joyhong.resumebuilderapi.config;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 
 @Configuration
 @EnableMongoAuditing
 public class MongoConfig {
+
+    // Only used through MongoTransactions, which checks that the deployment supports transactions
+    @Bean
+    public MongoTransactionManager mongoTransactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
 }
@@ -0,0 +1,188 @@
+package in.joyhong.resumebuilderapi.config;
+
+import in.joyhong.resumebuilderapi.document.EmailOutboxMessage;
+import in.joyhong.resumebuilderapi.document.Payment;
+import in.joyhong.resumebuilderapi.document.PaymentWebhookEvent;
+import in.joyhong.resumebuilderapi.document.Resume;
+import in.joyhong.resumebuilderapi.document.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Declares the indexes behind every repository finder, creates (or verifies)
+ * them at startup and checks the query plans of those finders with
+ * {@code explain}. The plan report is also available at
+ * {@code /actuator/mongoindexes}, which can be run against a local mongod.
+ */
+@Component
+@Endpoint(id = "mongoindexes")
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexManager {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.mongo.indexes.create:true}")
+    private boolean createIndexes;
+
+    @Value("${app.mongo.indexes.verify-plans:true}")
+    private boolean verifyPlans;
+
+    @Value("${app.mail.outbox.retention:7d}")
+    private Duration outboxRetention;
+
+    @Value("${app.payment.webhook.retention:30d}")
+    private Duration webhookRetention;
+
+    record IndexSpec(Class<?> documentType, IndexDefinition definition) {
+    }
+
+    record QuerySpec(String name, String collection, Document filter, Document sort) {
+    }
+
+    public record PlanReport(String query, String collection, Set<String> stages, boolean collectionScan) {
+    }
+
+    List<IndexSpec> indexes() {
+        return List.of(
+                // findByEmail, existsByEmail
+                new IndexSpec(User.class, new Index().on("email", Sort.Direction.ASC).unique().named("email_unique")),
+                // findByVerificationToken
+                new IndexSpec(User.class, new Index().on("verificationToken", Sort.Direction.ASC).sparse().named("verificationToken")),
+                // streamByUserIdOrderByUpdatedAtDesc, summary pagination on (updatedAt, _id)
+                new IndexSpec(Resume.class, new Index().on("userId", Sort.Direction.ASC)
+                        .on("updatedAt", Sort.Direction.DESC)
+                        .on("_id", Sort.Direction.DESC)
+                        .named("userId_updatedAt_id")),
+                // findByRazorpayOrderId
+                new IndexSpec(Payment.class, new Index().on("razorpayOrderId", Sort.Direction.ASC).unique().sparse().named("razorpayOrderId_unique")),
+                // findByRazorpayPaymentId
+                new IndexSpec(Payment.class, new Index().on("razorpayPaymentId", Sort.Direction.ASC).sparse().named("razorpayPaymentId")),
+                // PaymentReconciler pages, keyset on (createdAt, _id)
+                new IndexSpec(Payment.class, new Index().on("status", Sort.Direction.ASC)
+                        .on("createdAt", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named("status_createdAt_id")),
+                // EmailDispatcher claims
+                new IndexSpec(EmailOutboxMessage.class, new Index().on("status", Sort.Direction.ASC)
+                        .on("nextAttemptAt", Sort.Direction.ASC)
+                        .named("status_nextAttemptAt")),
+                // Delivered messages are removed after the retention period
+                new IndexSpec(EmailOutboxMessage.class, new Index().on("sentAt", Sort.Direction.ASC)
+                        .expire(outboxRetention)
+                        .named("sentAt_ttl")),
+                // PaymentWebhookProcessor claims
+                new IndexSpec(PaymentWebhookEvent.class, new Index().on("status", Sort.Direction.ASC)
+                        .on("nextAttemptAt", Sort.Direction.ASC)
+                        .named("status_nextAttemptAt")),
+                // Processed events are kept long enough to absorb gateway redeliveries
+                new IndexSpec(PaymentWebhookEvent.class, new Index().on("processedAt", Sort.Direction.ASC)
+                        .expire(webhookRetention)
+                        .named("processedAt_ttl"))
+        );
+    }
+
+    List<QuerySpec> queries() {
+        return List.of(
+                new QuerySpec("UserRepository.findByEmail", "users",
+                        new Document("email", "probe@example.com"), null),
+                new QuerySpec("UserRepository.findByVerificationToken", "users",
+                        new Document("verificationToken", "probe"), null),
+                new QuerySpec("ResumeRepository.streamByUserIdOrderByUpdatedAtDesc", "resumes",
+                        new Document("userId", "probe"), new Document("updatedAt", -1)),
+                new QuerySpec("ResumeRepository.findByUserIdAndId", "resumes",
+                        new Document("userId", "probe").append("_id", "probe"), null),
+                new QuerySpec("PaymentRepository.findByRazorpayOrderId", "payments",
+                        new Document("razorpayOrderId", "probe"), null),
+                new QuerySpec("PaymentRepository.findByRazorpayPaymentId", "payments",
+                        new Document("razorpayPaymentId", "probe"), null),
+                new QuerySpec("PaymentRepository.streamByUserIdOrderByCreatedAtDesc", "payments",
+                        new Document("_id", "probe"), new Document("createdAt", -1)),
+                new QuerySpec("PaymentReconciler.nextPage", "payments",
+                        new Document("status", "created").append("createdAt", new Document("$lt", new Date())),
+                        new Document("createdAt", 1).append("_id", 1)),
+                new QuerySpec("EmailDispatcher.claimBatch", "email_outbox",
+                        new Document("status", EmailOutboxMessage.STATUS_PENDING), new Document("nextAttemptAt", 1)),
+                new QuerySpec("PaymentWebhookProcessor.claimBatch", "payment_webhook_events",
+                        new Document("status", PaymentWebhookEvent.STATUS_PENDING), new Document("nextAttemptAt", 1))
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (createIndexes) {
+            ensureIndexes();
+        }
+        if (verifyPlans) {
+            verifyQueryPlans().stream()
+                    .filter(PlanReport::collectionScan)
+                    .forEach(report -> log.warn("Query {} on {} uses a collection scan: {}",
+                            report.query(), report.collection(), report.stages()));
+        }
+    }
+
+    public void ensureIndexes() {
+        for (IndexSpec spec : indexes()) {
+            try {
+                String name = mongoTemplate.indexOps(spec.documentType()).createIndex(spec.definition());
+                log.info("Index {} on {} is in place", name, mongoTemplate.getCollectionName(spec.documentType()));
+            } catch (Exception e) {
+                // Typically an existing index with the same keys but different options
+                log.error("Could not create index {} on {}: {}", spec.definition().getIndexKeys(),
+                        mongoTemplate.getCollectionName(spec.documentType()), e.getMessage());
+            }
+        }
+    }
+
+    @ReadOperation
+    public List<PlanReport> verifyQueryPlans() {
+        List<PlanReport> reports = new ArrayList<>();
+        for (QuerySpec spec : queries()) {
+            Document find = new Document("find", spec.collection()).append("filter", spec.filter());
+            if (spec.sort() != null) {
+                find.append("sort", spec.sort());
+            }
+            Document explain = mongoTemplate.getDb().runCommand(
+                    new Document("explain", find).append("verbosity", "queryPlanner"));
+
+            Set<String> stages = new LinkedHashSet<>();
+            Object queryPlanner = explain.get("queryPlanner");
+            if (queryPlanner instanceof Document planner) {
+                collectStages(planner.get("winningPlan"), stages);
+            }
+            reports.add(new PlanReport(spec.name(), spec.collection(), stages, stages.contains("COLLSCAN")));
+        }
+        return reports;
+    }
+
+    // Walks a plan tree; handles both classic (inputStage/inputStages) and SBE (queryPlan) layouts
+    private static void collectStages(Object node, Set<String> stages) {
+        if (node instanceof Document document) {
+            Object stage = document.get("stage");
+            if (stage instanceof String name) {
+                stages.add(name);
+            }
+            document.values().forEach(child -> collectStages(child, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(child -> collectStages(child, stages));
+        }
+    }
+}
@@ -2,19 +2,30 @@ package in.joyhong.resumebuilderapi.config;
 
 import in.joyhong.resumebuilderapi.security.JwtAuthenticationEntryPoint;
 import in.joyhong.resumebuilderapi.security.JwtAuthenticationFilter;
+import in.joyhong.resumebuilderapi.security.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.util.StringUtils;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
@@ -25,10 +36,49 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
+
+    @Value("${app.security.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    // Scrape credential for the actuator, the password carries its encoding, e.g. {bcrypt}$2a$10$...
+    @Value("${app.management.username:}")
+    private String managementUsername;
+
+    @Value("${app.management.password:}")
+    private String managementPassword;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
+    }
+
+    // Actuator endpoints: the probes are public, metrics and diagnostics need the scrape credential.
+    // User JWTs are not accepted here, anyone can register an account
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        boolean credentialConfigured = StringUtils.hasText(managementUsername) && StringUtils.hasText(managementPassword);
+        http.securityMatcher("/actuator/**")
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(auth -> {
+                    auth.requestMatchers("/actuator/health", "/actuator/health/**").permitAll();
+                    if (credentialConfigured) {
+                        auth.anyRequest().hasRole("ACTUATOR");
+                    } else {
+                        auth.anyRequest().denyAll();
+                    }
+                })
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .httpBasic(Customizer.withDefaults());
+        if (credentialConfigured) {
+            UserDetails scraper = User.withUsername(managementUsername)
+                    .password(managementPassword)
+                    .roles("ACTUATOR")
+                    .build();
+            http.authenticationManager(new ProviderManager(new DaoAuthenticationProvider(new InMemoryUserDetailsManager(scraper))));
+        }
+        return http.build();
     }
 
     // Controls backend endpoint accessibility
@@ -36,17 +86,22 @@ public class SecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
          http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
                  .csrf(csrf -> csrf.disable())
-                 .authorizeHttpRequests(auth -> auth.requestMatchers(
+                 // Async and error re-dispatches carry no JWT context, the original request was already authorized
+                 .authorizeHttpRequests(auth -> auth.dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                         .requestMatchers(
                          "/api/auth/register",
                                  "/api/auth/login",
                                  "/api/auth/verify-email",
                                  "/api/auth/upload-image",
                                  "/api/auth/resend-verification",
-                                 "/actuator/**")
+                                 "/api/files/**",
+                                 "/api/templates/previews/**",
+                                 "/api/payment/webhook")
                          .permitAll()
                          .anyRequest().authenticated())
                  .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                  .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                 .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
                  .exceptionHandling(ex -> ex.authenticationEntryPoint(new JwtAuthenticationEntryPoint()));
          return http.build();
     }
@@ -58,6 +113,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:5173"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("ETag", "Retry-After"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
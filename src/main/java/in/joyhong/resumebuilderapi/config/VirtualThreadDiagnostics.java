@@ -0,0 +1,124 @@
+package in.joyhong.resumebuilderapi.config;
+
+import in.joyhong.resumebuilderapi.util.BlockingCallExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pinning report for the virtual-thread mode, exposed as the
+ * {@code /actuator/virtualthreads} endpoint. Listens to JFR
+ * {@code jdk.VirtualThreadPinned} events and groups them by the first
+ * application frame on the pinned stack.
+ */
+@Component
+@Endpoint(id = "virtualthreads")
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadDiagnostics {
+
+    private static final String APP_PACKAGE = "in.joyhong.resumebuilderapi";
+
+    private final BlockingCallExecutor blockingCallExecutor;
+
+    @Value("${app.threads.pinned-threshold:20ms}")
+    private Duration pinnedThreshold;
+
+    private final Map<String, LongAdder> pinnedBySite = new ConcurrentHashMap<>();
+    private final AtomicLong pinnedTotal = new AtomicLong();
+    private final AtomicLong maxPinnedMillis = new AtomicLong();
+    private RecordingStream recordingStream;
+
+    @PostConstruct
+    void start() {
+        if (!blockingCallExecutor.isVirtualThreadsEnabled()) {
+            return;
+        }
+        try {
+            recordingStream = new RecordingStream();
+            recordingStream.enable("jdk.VirtualThreadPinned")
+                    .withThreshold(pinnedThreshold)
+                    .withStackTrace();
+            recordingStream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+            recordingStream.startAsync();
+            log.info("Recording virtual thread pinning events longer than {}", pinnedThreshold);
+        } catch (Exception e) {
+            log.warn("Could not start JFR pinning recorder: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedTotal.incrementAndGet();
+        maxPinnedMillis.accumulateAndGet(event.getDuration().toMillis(), Math::max);
+        pinnedBySite.computeIfAbsent(pinnedSite(event.getStackTrace()), site -> new LongAdder()).increment();
+    }
+
+    private static String pinnedSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        // Prefer our own frame so the report points at the calling code
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APP_PACKAGE)) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        RecordedFrame top = frames.get(0);
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        Map<String, Long> sites = new LinkedHashMap<>();
+        pinnedBySite.entrySet().stream()
+                .sorted(Map.Entry.<String, LongAdder>comparingByValue(Comparator.comparingLong(LongAdder::sum)).reversed())
+                .limit(20)
+                .forEach(entry -> sites.put(entry.getKey(), entry.getValue().sum()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("virtualThreadsEnabled", blockingCallExecutor.isVirtualThreadsEnabled());
+        report.put("pinningRecorderActive", recordingStream != null);
+        report.put("pinnedThreshold", pinnedThreshold.toString());
+        report.put("pinnedEvents", pinnedTotal.get());
+        report.put("maxPinnedMillis", maxPinnedMillis.get());
+        report.put("pinnedSites", sites);
+        // Platform (OS) threads only; virtual threads are not counted by the MXBean
+        report.put("platformThreads", threads.getThreadCount());
+        report.put("peakPlatformThreads", threads.getPeakThreadCount());
+        report.put("offloadPoolSize", blockingCallExecutor.offloadPoolSize());
+        report.put("offloadActive", blockingCallExecutor.offloadActiveCount());
+        report.put("offloadQueued", blockingCallExecutor.offloadQueueSize());
+        return report;
+    }
+}
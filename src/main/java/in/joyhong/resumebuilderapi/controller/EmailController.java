@@ -1,10 +1,16 @@
 package in.joyhong.resumebuilderapi.controller;
 
+import in.joyhong.resumebuilderapi.dto.BulkSendResult;
+import in.joyhong.resumebuilderapi.exception.PayloadTooLargeException;
+import in.joyhong.resumebuilderapi.service.EmailOutboxService;
 import in.joyhong.resumebuilderapi.service.EmailService;
+import in.joyhong.resumebuilderapi.service.ResumePdfService;
 import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -12,10 +18,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -25,38 +36,101 @@ import java.util.Objects;
 @Slf4j
 public class EmailController {
 
+    private final EmailOutboxService emailOutboxService;
+    private final ResumePdfService resumePdfService;
     private final EmailService emailService;
 
+    @Value("${app.mail.attachment.max-size:10MB}")
+    private DataSize maxAttachmentSize;
+
     @PostMapping(value = "/send-resume", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Map<String, Object>> sendResumeByEmail(
             @RequestPart("recipientEmail") String recipientEmail,
             @RequestPart("subject") String subject,
             @RequestPart("message") String message,
-            @RequestPart("pdfFile") MultipartFile pdfFile,
+            @RequestPart(value = "pdfFile", required = false) MultipartFile pdfFile,
+            @RequestPart(value = "resumeId", required = false) String resumeId,
+            @RequestPart(value = "template", required = false) String template,
             Authentication authentication
-    ) throws IOException, MessagingException {
+    ) throws IOException {
         // Validate the inputs
         Map<String, Object> response = new HashMap<>();
-        if (Objects.isNull(recipientEmail) || Objects.isNull(pdfFile)) {
+        if (Objects.isNull(recipientEmail) || (Objects.isNull(pdfFile) && Objects.isNull(resumeId))) {
             response.put("success", false);
             response.put("message", "Missing required fields.");
             return ResponseEntity.badRequest().body(response);
         }
 
-        // Get the file data
-        byte[] pdfBytes = pdfFile.getBytes();
-        String originalFilename = pdfFile.getOriginalFilename();
-        String filename = Objects.nonNull(originalFilename) ? originalFilename : "resume.pdf";
-
         // Prepare the email content
         String emailSubject = Objects.nonNull(subject) ? subject : "Resume Application";
         String emailBody = Objects.nonNull(message) ? message : "Please find my resume attached. \n\n Best regards";
 
-        // Call the service method
-        emailService.sendEmailWithAttachment(recipientEmail, emailSubject, emailBody, pdfBytes, filename);
+        // Queue the email, it is delivered in the background. Uploaded files are streamed, never read into memory
+        if (Objects.nonNull(pdfFile)) {
+            String originalFilename = pdfFile.getOriginalFilename();
+            String filename = Objects.nonNull(originalFilename) ? originalFilename : "resume.pdf";
+            try (InputStream pdfStream = pdfFile.getInputStream()) {
+                emailOutboxService.enqueueEmailWithAttachment(recipientEmail, emailSubject, emailBody,
+                        pdfStream, pdfFile.getSize(), filename);
+            }
+        } else {
+            ResumePdfService.RenderedPdf pdf = resumePdfService.renderResume(resumeId, template, authentication.getPrincipal());
+            emailOutboxService.enqueueEmailWithAttachment(recipientEmail, emailSubject, emailBody,
+                    new ByteArrayInputStream(pdf.content()), pdf.content().length, pdf.filename());
+        }
 
         response.put("success", true);
-        response.put("message", "Resume sent successfully to " + recipientEmail);
+        response.put("message", "Resume queued for delivery to " + recipientEmail);
+
+        // Return response
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @PostMapping(value = "/send-resume/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> sendResumeToRecipients(
+            @RequestPart("recipients") String recipients,
+            @RequestPart(value = "subject", required = false) String subject,
+            @RequestPart(value = "message", required = false) String message,
+            @RequestPart(value = "pdfFile", required = false) MultipartFile pdfFile,
+            @RequestPart(value = "resumeId", required = false) String resumeId,
+            @RequestPart(value = "template", required = false) String template,
+            Authentication authentication
+    ) throws IOException, MessagingException {
+        // Validate the inputs, recipients are separated by commas, semicolons or whitespace
+        Map<String, Object> response = new HashMap<>();
+        List<String> recipientList = Arrays.stream(recipients.split("[,;\\s]+"))
+                .filter(recipient -> !recipient.isBlank())
+                .distinct()
+                .toList();
+        if (recipientList.isEmpty() || (Objects.isNull(pdfFile) && Objects.isNull(resumeId))) {
+            response.put("success", false);
+            response.put("message", "Missing required fields.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (Objects.nonNull(pdfFile) && pdfFile.getSize() > maxAttachmentSize.toBytes()) {
+            throw new PayloadTooLargeException("Attachment exceeds the maximum size of " + maxAttachmentSize + ".");
+        }
+
+        // Prepare the email content
+        String emailSubject = Objects.nonNull(subject) ? subject : "Resume Application";
+        String emailBody = Objects.nonNull(message) ? message : "Please find my resume attached. \n\n Best regards";
+
+        // Send right away, each recipient gets its own result
+        List<BulkSendResult> results;
+        if (Objects.nonNull(pdfFile)) {
+            String originalFilename = pdfFile.getOriginalFilename();
+            String filename = Objects.nonNull(originalFilename) ? originalFilename : "resume.pdf";
+            results = emailService.sendBulk(recipientList, emailSubject, emailBody, pdfFile, filename);
+        } else {
+            ResumePdfService.RenderedPdf pdf = resumePdfService.renderResume(resumeId, template, authentication.getPrincipal());
+            results = emailService.sendBulk(recipientList, emailSubject, emailBody,
+                    new ByteArrayResource(pdf.content()), pdf.filename());
+        }
+
+        long sent = results.stream().filter(result -> "sent".equals(result.getStatus())).count();
+        response.put("success", sent == results.size());
+        response.put("message", "Resume sent to " + sent + " of " + results.size() + " recipients.");
+        response.put("results", results);
 
         // Return response
         return ResponseEntity.ok(response);
@@ -1,16 +1,18 @@
 package in.joyhong.resumebuilderapi.controller;
 
-import com.razorpay.RazorpayException;
 import in.joyhong.resumebuilderapi.document.Payment;
 import in.joyhong.resumebuilderapi.service.PaymentService;
+import in.joyhong.resumebuilderapi.service.PaymentWebhookService;
+import in.joyhong.resumebuilderapi.util.JsonStreamWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.Response;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -23,10 +25,12 @@ import static in.joyhong.resumebuilderapi.util.AppConstants.PREMIUM;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final PaymentWebhookService paymentWebhookService;
 
     @PostMapping("/create-order")
     public ResponseEntity<?> createOrder(@RequestBody Map<String, String> request,
-                                         Authentication authentication) throws RazorpayException {
+                                         Authentication authentication) {
         // Validate the request
         String planType = request.get("planType");
         if (!PREMIUM.equalsIgnoreCase(planType)) {
@@ -49,7 +53,7 @@ public class PaymentController {
     }
 
     @PostMapping("/verify")
-    public ResponseEntity<?> verifyPayment(@RequestBody Map<String, String> request) throws RazorpayException {
+    public ResponseEntity<?> verifyPayment(@RequestBody Map<String, String> request) {
         // Validate the request
         String razorpayOrderId = request.get("razorpay_order_id");
         String razorpayPaymentId = request.get("razorpay_payment_id");
@@ -72,13 +76,28 @@ public class PaymentController {
         }
     }
 
+    @PostMapping("/webhook")
+    public ResponseEntity<?> receiveWebhook(@RequestBody String payload,
+                                            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature,
+                                            @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String eventId) {
+        // Only verified and stored here, applied in the background
+        PaymentWebhookService.Receipt receipt = paymentWebhookService.receive(payload, signature, eventId);
+
+        // Return response, a redelivery is acknowledged like the original
+        if (receipt == PaymentWebhookService.Receipt.REJECTED) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid webhook."));
+        }
+        return ResponseEntity.ok(Map.of("status", receipt.name().toLowerCase()));
+    }
+
     @GetMapping("/history")
-    public ResponseEntity<?> getPaymentHistory(Authentication authentication) {
-        // Call service method
-        List<Payment> payments = paymentService.getUserPayments(authentication.getPrincipal());
+    public ResponseEntity<StreamingResponseBody> getPaymentHistory(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
 
-        // Return the response
-        return ResponseEntity.ok(payments);
+        // Return the response, written document by document from the Mongo cursor
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamWriter.writeArray(() -> paymentService.streamUserPayments(principal)));
     }
 
     @GetMapping("/order/{orderId}")
@@ -2,21 +2,30 @@ package in.joyhong.resumebuilderapi.controller;
 
 import in.joyhong.resumebuilderapi.document.Resume;
 import in.joyhong.resumebuilderapi.dto.CreateResumeRequest;
+import in.joyhong.resumebuilderapi.dto.ResumePatchRequest;
+import in.joyhong.resumebuilderapi.dto.ResumeSummaryPage;
 import in.joyhong.resumebuilderapi.service.FileUploadService;
+import in.joyhong.resumebuilderapi.service.ResumePdfService;
 import in.joyhong.resumebuilderapi.service.ResumeService;
+import in.joyhong.resumebuilderapi.util.ETagUtil;
+import in.joyhong.resumebuilderapi.util.JsonStreamWriter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import static in.joyhong.resumebuilderapi.util.AppConstants.*;
 
@@ -27,6 +36,8 @@ import static in.joyhong.resumebuilderapi.util.AppConstants.*;
 public class ResumeController {
     private final ResumeService resumeService;
     private final FileUploadService fileUploadService;
+    private final JsonStreamWriter jsonStreamWriter;
+    private final ResumePdfService resumePdfService;
 
     @PostMapping
     public ResponseEntity<?> createResume(@Valid @RequestBody CreateResumeRequest request,
@@ -39,33 +50,97 @@ public class ResumeController {
     }
 
     @GetMapping
-    public ResponseEntity<?> getUserResume(Authentication authentication) {
+    public ResponseEntity<StreamingResponseBody> getUserResume(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+
+        // Return response, written document by document from the Mongo cursor
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamWriter.writeArray(() -> resumeService.streamUserResumes(principal)));
+    }
+
+    @GetMapping(SUMMARY)
+    public ResponseEntity<?> getUserResumeSummaries(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
         // Call the service method
-        List<Resume> resumes = resumeService.getUserResumes(authentication.getPrincipal());
+        ResumeSummaryPage page = resumeService.getUserResumeSummaries(authentication.getPrincipal(), cursor, limit);
 
         // Return response
-        return ResponseEntity.ok(resumes);
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping(ID)
     public ResponseEntity<?> getResumeById(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             Authentication authentication) {
+        // Answer revalidation from the version alone, without loading the resume
+        if (ifNoneMatch != null) {
+            String current = eTagOf(resumeService.getResumeVersions(id, authentication.getPrincipal()));
+            if (ETagUtil.matchesAny(ifNoneMatch, current)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).build();
+            }
+        }
+
         // Call the service method
         Resume existingResume = resumeService.getResumeById(id, authentication.getPrincipal());
 
         // Return response
-        return ResponseEntity.ok(existingResume);
+        return ResponseEntity.ok()
+                .eTag(eTagOf(existingResume))
+                .body(existingResume);
     }
 
     @PutMapping(ID)
     public ResponseEntity<?> updateResume(@PathVariable String id,
             @RequestBody Resume updatedData,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            Authentication authentication) {
+        // Call the service method
+        Resume updatedResume = resumeService.updateResume(id, updatedData, authentication.getPrincipal(),
+                ETagUtil.parseIfMatch(ifMatch));
+
+        // Return response
+        return ResponseEntity.ok()
+                .eTag(eTagOf(updatedResume))
+                .body(updatedResume);
+    }
+
+    @PatchMapping(ID)
+    public ResponseEntity<?> patchResume(@PathVariable String id,
+            @Valid @RequestBody ResumePatchRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            Authentication authentication) {
+        // Call the service method
+        Resume patched = resumeService.patchResume(id, request, authentication.getPrincipal(),
+                ETagUtil.parseIfMatch(ifMatch));
+
+        // Return response
+        return ResponseEntity.ok()
+                .eTag(eTagOf(patched))
+                .body(Map.of("message", "Resume updated successfully.",
+                        "updatedAt", patched.getUpdatedAt(),
+                        "version", patched.getVersion()));
+    }
+
+    // Content version plus thumbnail stamp, so a new server thumbnail invalidates cached copies
+    private static String eTagOf(Resume resume) {
+        return ETagUtil.toETag(Objects.requireNonNullElse(resume.getVersion(), 0L),
+                Objects.requireNonNullElse(resume.getThumbnailVersion(), 0L));
+    }
+
+    @GetMapping(PDF)
+    public ResponseEntity<?> getResumePdf(@PathVariable String id,
+            @RequestParam(required = false) String template,
             Authentication authentication) {
         // Call the service method
-        Resume updatedResume = resumeService.updateResume(id, updatedData, authentication.getPrincipal());
+        ResumePdfService.RenderedPdf pdf = resumePdfService.renderResume(id, template, authentication.getPrincipal());
 
         // Return response
-        return ResponseEntity.ok(updatedResume);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().filename(pdf.filename()).build().toString())
+                .body(pdf.content());
     }
 
     @PutMapping(UPLOAD_IMAGES)
@@ -1,19 +1,30 @@
 package in.joyhong.resumebuilderapi.controller;
 
 import in.joyhong.resumebuilderapi.service.TemplatesService;
+import in.joyhong.resumebuilderapi.template.PreviewAsset;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.Objects;
+
+import static in.joyhong.resumebuilderapi.util.AppConstants.*;
 
 @RestController
 @RequiredArgsConstructor
-@RequestMapping("/api/templates")
+@RequestMapping(TEMPLATES)
 @Slf4j
 public class TemplatesController {
 
@@ -27,4 +38,24 @@ public class TemplatesController {
         // Return the response
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping(TEMPLATE_PREVIEW)
+    public ResponseEntity<byte[]> getPreview(@PathVariable String name,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Names are content hashed, an old or unknown one is simply not found
+        PreviewAsset preview = templatesService.getPreview(name);
+        if (Objects.isNull(preview)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+        if (preview.eTag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).eTag(preview.eTag()).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(preview.eTag())
+                .contentType(MediaType.parseMediaType(preview.contentType()))
+                .body(preview.content());
+    }
 }
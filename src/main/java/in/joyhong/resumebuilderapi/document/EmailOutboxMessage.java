@@ -0,0 +1,52 @@
+package in.joyhong.resumebuilderapi.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "email_outbox")
+public class EmailOutboxMessage {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_SENDING = "sending";
+    public static final String STATUS_SENT = "sent";
+    public static final String STATUS_DEAD = "dead";
+
+    @Id
+    private String id;
+
+    private String recipient;
+    private String subject;
+    private String body;
+    private boolean html;
+
+    // GridFS file holding the attachment, if any
+    private String attachmentId;
+    private String attachmentFilename;
+
+    @Builder.Default
+    private String status = STATUS_PENDING; // pending, sending, sent, dead
+
+    @Builder.Default
+    private int attempts = 0;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime lockedUntil;
+    private String lastError;
+    private LocalDateTime sentAt;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,27 @@
+package in.joyhong.resumebuilderapi.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "image_assets")
+public class ImageAsset {
+
+    // Hex SHA-256 of the uploaded bytes plus the purpose they were normalized for
+    @Id
+    private String id;
+
+    private String url;
+    private long size;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,43 @@
+package in.joyhong.resumebuilderapi.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "payment_webhook_events")
+public class PaymentWebhookEvent {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_PROCESSING = "processing";
+    public static final String STATUS_PROCESSED = "processed";
+    public static final String STATUS_FAILED = "failed";
+
+    // Gateway event id, a redelivered event collides here and is dropped
+    @Id
+    private String id;
+
+    private String event;
+    private String orderId;
+    private String paymentId;
+
+    @Builder.Default
+    private String status = STATUS_PENDING; // pending, processing, processed, failed
+
+    @Builder.Default
+    private int attempts = 0;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime lockedUntil;
+    private String lastError;
+
+    private LocalDateTime receivedAt;
+    private LocalDateTime processedAt;
+}
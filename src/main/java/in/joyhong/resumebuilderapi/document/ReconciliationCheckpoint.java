@@ -0,0 +1,32 @@
+package in.joyhong.resumebuilderapi.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "reconciliation_checkpoints")
+public class ReconciliationCheckpoint {
+
+    // One document per sweep, e.g. "payments"
+    @Id
+    private String id;
+
+    // Keyset position of the last fully reconciled page, unset between sweeps
+    private LocalDateTime lastCreatedAt;
+    private String lastId;
+
+    // Lease, so only one instance sweeps at a time
+    private String owner;
+    private LocalDateTime lockedUntil;
+
+    private LocalDateTime updatedAt;
+}
@@ -50,6 +50,12 @@ public class Resume {
 
     private List<String> interests;
 
+    // Incremented on every content change, drives the ETag and If-Match
+    private Long version;
+
+    // Incremented by every server-side thumbnail render, part of the ETag only
+    private Long thumbnailVersion;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -0,0 +1,16 @@
+package in.joyhong.resumebuilderapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkSendResult {
+    private String recipient;
+    private String status; // sent, failed, invalid
+    private String error;
+}
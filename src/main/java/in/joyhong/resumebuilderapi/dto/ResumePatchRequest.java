@@ -0,0 +1,42 @@
+package in.joyhong.resumebuilderapi.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Targeted changes to a resume, e.g.
+ * {@code {"op": "set", "path": "workExperience[2].description", "value": "..."}}
+ * or {@code {"op": "push", "path": "skills", "value": {"name": "Java", "progress": 80}}}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumePatchRequest {
+
+    @NotEmpty(message = "At least one operation is required.")
+    @Valid
+    private List<Operation> operations;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Operation {
+
+        @NotBlank(message = "Operation is required.")
+        private String op; // set, unset, push, pull
+
+        @NotBlank(message = "Path is required.")
+        private String path;
+
+        private Object value;
+    }
+}
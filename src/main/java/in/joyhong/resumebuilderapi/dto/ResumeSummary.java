@@ -0,0 +1,23 @@
+package in.joyhong.resumebuilderapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import in.joyhong.resumebuilderapi.document.Resume;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumeSummary {
+    @JsonProperty("_id")
+    private String id;
+    private String title;
+    private String thumbnailLink;
+    private Resume.Template template;
+    private LocalDateTime updatedAt;
+}
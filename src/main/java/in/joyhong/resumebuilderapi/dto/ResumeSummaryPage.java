@@ -0,0 +1,18 @@
+package in.joyhong.resumebuilderapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumeSummaryPage {
+    private List<ResumeSummary> items;
+    // Opaque cursor for the next page, null on the last page
+    private String nextCursor;
+}
@@ -1,13 +1,16 @@
 package in.joyhong.resumebuilderapi.exception;
 
+import in.joyhong.resumebuilderapi.payment.PaymentGatewayException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.catalina.connector.Response;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -46,6 +49,68 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, Object>> handlePreconditionFailedException(
+            PreconditionFailedException ex
+    ) {
+        log.info("Inside GlobalExceptionHandler - handlePreconditionFailedException()");
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Precondition failed");
+        response.put("error", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(response);
+    }
+
+    @ExceptionHandler({PayloadTooLargeException.class, MaxUploadSizeExceededException.class})
+    public ResponseEntity<Map<String, Object>> handlePayloadTooLargeException(
+            Exception ex
+    ) {
+        log.info("Inside GlobalExceptionHandler - handlePayloadTooLargeException()");
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Payload too large");
+        response.put("error", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgumentException(
+            IllegalArgumentException ex
+    ) {
+        log.info("Inside GlobalExceptionHandler - handleIllegalArgumentException()");
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Invalid request");
+        response.put("error", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler(PaymentGatewayException.class)
+    public ResponseEntity<Map<String, Object>> handlePaymentGatewayException(
+            PaymentGatewayException ex
+    ) {
+        log.warn("Inside GlobalExceptionHandler - handlePaymentGatewayException(): {}", ex.getMessage());
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Payment provider error");
+        response.put("error", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(response);
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceBusyException(
+            ServiceBusyException ex
+    ) {
+        log.info("Inside GlobalExceptionHandler - handleServiceBusyException()");
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Service busy");
+        response.put("error", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
         log.info("Inside GlobalExceptionHandler - handleGenericException()");
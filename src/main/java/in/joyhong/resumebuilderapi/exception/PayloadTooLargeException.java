@@ -0,0 +1,7 @@
+package in.joyhong.resumebuilderapi.exception;
+
+public class PayloadTooLargeException extends RuntimeException{
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package in.joyhong.resumebuilderapi.exception;
+
+public class PreconditionFailedException extends RuntimeException{
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package in.joyhong.resumebuilderapi.exception;
+
+public class ServiceBusyException extends RuntimeException{
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
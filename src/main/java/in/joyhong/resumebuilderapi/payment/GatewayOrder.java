@@ -0,0 +1,8 @@
+package in.joyhong.resumebuilderapi.payment;
+
+/**
+ * An order as the gateway sees it; status is the gateway's own
+ * (created, attempted, paid).
+ */
+public record GatewayOrder(String id, long amount, String currency, String status) {
+}
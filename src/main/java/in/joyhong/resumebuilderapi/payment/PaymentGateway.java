@@ -0,0 +1,17 @@
+package in.joyhong.resumebuilderapi.payment;
+
+/**
+ * Operations the app needs from the payment provider. Implementations fail
+ * with {@link PaymentGatewayException} when the provider errors or does not
+ * answer in time.
+ */
+public interface PaymentGateway {
+
+    GatewayOrder createOrder(long amount, String currency, String receipt);
+
+    GatewayOrder fetchOrder(String orderId);
+
+    boolean verifyPaymentSignature(String orderId, String paymentId, String signature);
+
+    boolean verifyWebhookSignature(String payload, String signature);
+}
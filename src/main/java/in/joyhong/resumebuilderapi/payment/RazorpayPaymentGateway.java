@@ -0,0 +1,276 @@
+package in.joyhong.resumebuilderapi.payment;
+
+import com.razorpay.Order;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import in.joyhong.resumebuilderapi.exception.ServiceBusyException;
+import in.joyhong.resumebuilderapi.util.BlockingCallExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Razorpay behind one shared client. Every remote call goes through a bulkhead
+ * (at most {@code max-concurrent-calls} in flight, callers wait briefly for a
+ * slot), a circuit breaker, and a hard deadline, so a slow provider costs a
+ * bounded number of threads for a bounded time.
+ * <p>
+ * Order creation (checkout) and order lookups (background reconciliation) have
+ * separate bulkheads and breakers, so a reconciliation sweep can neither use
+ * up checkout's slots nor open its circuit. Only timeouts, transport errors and
+ * 5xx answers count as breaker failures; a 4xx answer means the provider is up.
+ */
+@Component
+@ConditionalOnProperty(name = "app.payment.provider", havingValue = "razorpay", matchIfMissing = true)
+@Slf4j
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    @FunctionalInterface
+    private interface RazorpayCall<T> {
+        T call() throws RazorpayException;
+    }
+
+    // The SDK reports API errors as "<CODE>:<description>" and other non-2xx answers as "Status Code: <n>"
+    private static final Pattern CLIENT_ERROR = Pattern.compile("(BAD_REQUEST_ERROR:|Status Code: 4\\d\\d\\b).*", Pattern.DOTALL);
+
+    /**
+     * One bulkhead and circuit breaker pair.
+     */
+    private record Guard(String name, Semaphore bulkhead, int maxConcurrentCalls, CircuitBreaker circuitBreaker) {
+    }
+
+    private final String keyId;
+    private final String keySecret;
+    private final String webhookSecret;
+    private final BlockingCallExecutor blockingCallExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final Duration callTimeout;
+    private final Duration bulkheadWait;
+    private final Guard checkout;
+    private final Guard lookup;
+
+    private RazorpayClient razorpayClient;
+
+    public RazorpayPaymentGateway(@Value("${razorpay.key.id}") String keyId,
+                                  @Value("${razorpay.key.secret}") String keySecret,
+                                  @Value("${razorpay.webhook.secret:}") String webhookSecret,
+                                  BlockingCallExecutor blockingCallExecutor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.payment.razorpay.connect-timeout:5s}") Duration connectTimeout,
+                                  @Value("${app.payment.razorpay.read-timeout:10s}") Duration readTimeout,
+                                  @Value("${app.payment.razorpay.call-timeout:15s}") Duration callTimeout,
+                                  @Value("${app.payment.razorpay.max-concurrent-calls:16}") int maxConcurrentCalls,
+                                  @Value("${app.payment.razorpay.lookup.max-concurrent-calls:8}") int maxConcurrentLookups,
+                                  @Value("${app.payment.razorpay.bulkhead-wait:500ms}") Duration bulkheadWait,
+                                  @Value("${app.payment.razorpay.circuit.failure-threshold:5}") int failureThreshold,
+                                  @Value("${app.payment.razorpay.circuit.open-duration:30s}") Duration openDuration) {
+        this.keyId = keyId;
+        this.keySecret = keySecret;
+        this.webhookSecret = webhookSecret;
+        this.blockingCallExecutor = blockingCallExecutor;
+        this.meterRegistry = meterRegistry;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.callTimeout = callTimeout;
+        this.bulkheadWait = bulkheadWait;
+        this.checkout = new Guard("checkout", new Semaphore(maxConcurrentCalls), maxConcurrentCalls,
+                new CircuitBreaker(failureThreshold, openDuration));
+        this.lookup = new Guard("lookup", new Semaphore(maxConcurrentLookups), maxConcurrentLookups,
+                new CircuitBreaker(failureThreshold, openDuration));
+
+        for (Guard guard : new Guard[]{checkout, lookup}) {
+            Gauge.builder("payment.gateway.circuit", guard.circuitBreaker(), breaker -> breaker.getState().ordinal())
+                    .description("Circuit state: 0 closed, 1 open, 2 half-open")
+                    .tag("guard", guard.name())
+                    .register(meterRegistry);
+            Gauge.builder("payment.gateway.in-flight", guard, g -> g.maxConcurrentCalls() - g.bulkhead().availablePermits())
+                    .description("Gateway calls currently in flight")
+                    .tag("guard", guard.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public void init() throws RazorpayException {
+        configureHttpClient();
+        this.razorpayClient = new RazorpayClient(keyId, keySecret);
+    }
+
+    /**
+     * The SDK keeps a single static OkHttpClient with hardcoded 60s timeouts and
+     * only builds it when none is set yet, so install ours first. If that ever
+     * stops working the call deadline still applies.
+     */
+    private void configureHttpClient() {
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .connectTimeout(connectTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(checkout.maxConcurrentCalls() + lookup.maxConcurrentCalls(), 5, TimeUnit.MINUTES))
+                .build();
+        try {
+            Field client = Class.forName("com.razorpay.ApiUtils").getDeclaredField("client");
+            client.setAccessible(true);
+            client.set(null, httpClient);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Could not install Razorpay HTTP client, only the call deadline applies: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public GatewayOrder createOrder(long amount, String currency, String receipt) {
+        JSONObject orderRequest = new JSONObject();
+        orderRequest.put("amount", amount);
+        orderRequest.put("currency", currency);
+        orderRequest.put("receipt", receipt);
+
+        Order order = guarded("create_order", checkout, () -> razorpayClient.orders.create(orderRequest));
+        return toGatewayOrder(order);
+    }
+
+    @Override
+    public GatewayOrder fetchOrder(String orderId) {
+        Order order = guarded("fetch_order", lookup, () -> razorpayClient.orders.fetch(orderId));
+        return toGatewayOrder(order);
+    }
+
+    @Override
+    public boolean verifyPaymentSignature(String orderId, String paymentId, String signature) {
+        // Local HMAC check, no remote call
+        JSONObject attributes = new JSONObject();
+        attributes.put("razorpay_order_id", orderId);
+        attributes.put("razorpay_payment_id", paymentId);
+        attributes.put("razorpay_signature", signature);
+        try {
+            return Utils.verifyPaymentSignature(attributes, keySecret);
+        } catch (RazorpayException e) {
+            log.warn("Could not verify payment signature for order {}: {}", orderId, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean verifyWebhookSignature(String payload, String signature) {
+        if (webhookSecret.isEmpty()) {
+            log.warn("razorpay.webhook.secret is not set, rejecting webhook");
+            return false;
+        }
+        try {
+            return Utils.verifyWebhookSignature(payload, signature, webhookSecret);
+        } catch (RazorpayException e) {
+            log.warn("Could not verify webhook signature: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static GatewayOrder toGatewayOrder(Order order) {
+        Object amount = order.get("amount");
+        return new GatewayOrder(order.get("id"),
+                amount instanceof Number number ? number.longValue() : 0L,
+                order.get("currency"),
+                order.get("status"));
+    }
+
+    private <T> T guarded(String operation, Guard guard, RazorpayCall<T> call) {
+        Semaphore bulkhead = guard.bulkhead();
+        CircuitBreaker circuitBreaker = guard.circuitBreaker();
+
+        // Bulkhead first, so waiting callers do not hold a half-open trial slot
+        if (!acquireSlot(bulkhead)) {
+            meterRegistry.counter("payment.gateway.rejected", "reason", "bulkhead", "guard", guard.name()).increment();
+            throw new ServiceBusyException("Payment provider is busy. Please try again shortly.", 1);
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            meterRegistry.counter("payment.gateway.rejected", "reason", "circuit_open", "guard", guard.name()).increment();
+            throw new ServiceBusyException("Payment provider is unavailable. Please try again shortly.",
+                    circuitBreaker.remainingOpenSeconds());
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            Future<T> future;
+            try {
+                // The slot is returned when the remote call really ends, not when we stop waiting for it
+                future = blockingCallExecutor.ioExecutor().submit(() -> {
+                    try {
+                        return blockingCallExecutor.call(call::call);
+                    } finally {
+                        bulkhead.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                bulkhead.release();
+                throw e;
+            }
+
+            T result = future.get(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            circuitBreaker.onSuccess();
+            outcome = "success";
+            return result;
+        } catch (TimeoutException e) {
+            circuitBreaker.onFailure();
+            outcome = "timeout";
+            throw new PaymentGatewayException("Payment provider did not respond within " + callTimeout.toSeconds() + "s.", e);
+        } catch (ExecutionException e) {
+            if (isClientError(e.getCause())) {
+                // The provider answered, it just refused this request
+                circuitBreaker.onSuccess();
+                outcome = "client_error";
+            } else {
+                circuitBreaker.onFailure();
+            }
+            throw new PaymentGatewayException("Payment provider call failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.onFailure();
+            throw new PaymentGatewayException("Interrupted while calling the payment provider.", e);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw new PaymentGatewayException("Payment provider call failed: " + e.getMessage(), e);
+        } finally {
+            sample.stop(Timer.builder("payment.gateway.call")
+                    .description("Latency of calls to the payment provider")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static boolean isClientError(Throwable failure) {
+        return failure instanceof RazorpayException
+                && failure.getMessage() != null
+                && CLIENT_ERROR.matcher(failure.getMessage()).matches();
+    }
+
+    private boolean acquireSlot(Semaphore bulkhead) {
+        try {
+            return bulkhead.tryAcquire(bulkheadWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
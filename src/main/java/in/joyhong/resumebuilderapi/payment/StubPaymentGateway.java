@@ -0,0 +1,94 @@
+package in.joyhong.resumebuilderapi.payment;
+
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory gateway for running checkout offline and under load. Orders live
+ * only as long as the process; signatures use Razorpay's HMAC scheme with
+ * {@code app.payment.stub.secret}, and a verified order is reported as paid.
+ */
+@Component
+@ConditionalOnProperty(name = "app.payment.provider", havingValue = "stub")
+@Slf4j
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final Map<String, GatewayOrder> orders = new ConcurrentHashMap<>();
+    private final String secret;
+    private final Duration latency;
+
+    public StubPaymentGateway(@Value("${app.payment.stub.secret:stub_secret}") String secret,
+                              @Value("${app.payment.stub.latency:0ms}") Duration latency) {
+        this.secret = secret;
+        this.latency = latency;
+        log.warn("Using the stub payment gateway, no real payments are taken");
+    }
+
+    @Override
+    public GatewayOrder createOrder(long amount, String currency, String receipt) {
+        simulateLatency();
+        String id = "order_stub_" + UUID.randomUUID().toString().replace("-", "").substring(0, 14);
+        GatewayOrder order = new GatewayOrder(id, amount, currency, "created");
+        orders.put(id, order);
+        return order;
+    }
+
+    @Override
+    public GatewayOrder fetchOrder(String orderId) {
+        simulateLatency();
+        GatewayOrder order = orders.get(orderId);
+        if (order == null) {
+            throw new PaymentGatewayException("Order " + orderId + " not found.");
+        }
+        return order;
+    }
+
+    @Override
+    public boolean verifyPaymentSignature(String orderId, String paymentId, String signature) {
+        JSONObject attributes = new JSONObject();
+        attributes.put("razorpay_order_id", orderId);
+        attributes.put("razorpay_payment_id", paymentId);
+        attributes.put("razorpay_signature", signature);
+        try {
+            boolean valid = Utils.verifyPaymentSignature(attributes, secret);
+            if (valid) {
+                orders.computeIfPresent(orderId, (id, order) ->
+                        new GatewayOrder(id, order.amount(), order.currency(), "paid"));
+            }
+            return valid;
+        } catch (RazorpayException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean verifyWebhookSignature(String payload, String signature) {
+        try {
+            return Utils.verifyWebhookSignature(payload, signature, secret);
+        } catch (RazorpayException e) {
+            return false;
+        }
+    }
+
+    private void simulateLatency() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package in.joyhong.resumebuilderapi.repository;
+
+import in.joyhong.resumebuilderapi.document.EmailOutboxMessage;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface EmailOutboxRepository extends MongoRepository<EmailOutboxMessage, String> {
+
+    long countByStatus(String status);
+}
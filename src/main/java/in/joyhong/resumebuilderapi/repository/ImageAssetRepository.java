@@ -0,0 +1,7 @@
+package in.joyhong.resumebuilderapi.repository;
+
+import in.joyhong.resumebuilderapi.document.ImageAsset;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ImageAssetRepository extends MongoRepository<ImageAsset, String> {
+}
@@ -3,8 +3,8 @@ package in.joyhong.resumebuilderapi.repository;
 import in.joyhong.resumebuilderapi.document.Payment;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PaymentRepository extends MongoRepository<Payment, String> {
 
@@ -12,7 +12,5 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
 
     Optional<Payment> findByRazorpayPaymentId(String razorpayPaymentId);
 
-    List<Payment> findByUserIdOrderByCreatedAtDesc(String userId);
-
-    List<Payment> findByStatus(String status);
+    Stream<Payment> streamByUserIdOrderByCreatedAtDesc(String userId);
 }
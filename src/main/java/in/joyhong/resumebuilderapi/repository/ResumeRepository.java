@@ -3,12 +3,12 @@ package in.joyhong.resumebuilderapi.repository;
 import in.joyhong.resumebuilderapi.document.Resume;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ResumeRepository extends MongoRepository<Resume, String> {
 
-    List<Resume> findByUserIdOrderByUpdatedAtDesc(String userId);
+    Stream<Resume> streamByUserIdOrderByUpdatedAtDesc(String userId);
 
     Optional<Resume> findByUserIdAndId(String userId, String id);
 }
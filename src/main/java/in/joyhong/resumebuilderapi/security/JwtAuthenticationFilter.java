@@ -1,8 +1,9 @@
 package in.joyhong.resumebuilderapi.security;
 
-import in.joyhong.resumebuilderapi.document.User;
-import in.joyhong.resumebuilderapi.repository.UserRepository;
 import in.joyhong.resumebuilderapi.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,7 +12,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -25,11 +25,17 @@ import java.util.ArrayList;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final MeterRegistry meterRegistry;
 
     // Validate the JWT for every request user makes after login
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        // Times the filter's own work, the rest of the chain is not included
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "anonymous";
+
         String authHeader = request.getHeader("Authorization");
         String token = null;
         String userId = null;
@@ -38,28 +44,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer")) {
             // removes "Bearer" prefix and keeps only the JWT
             token = authHeader.substring(7);
-            try {
-                userId = jwtUtil.getUserIdFromToken(token);
-
-            } catch (Exception e) {
-                log.error("Token is not valid/available.");
+            userId = verifiedTokenCache.getUserId(token);
+            result = "cached";
+            if (userId == null) {
+                try {
+                    // Verifies signature and expiry in one parse
+                    Claims claims = jwtUtil.parseClaims(token);
+                    userId = claims.getSubject();
+                    verifiedTokenCache.put(token, userId, claims.getExpiration());
+                    result = "verified";
+                } catch (Exception e) {
+                    result = "invalid";
+                    log.error("Token is not valid/available.");
+                }
             }
         }
 
         // Avoids duplicate work if something is already authenticated in the SecurityContext
         if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                if (jwtUtil.validateToken(token) && !jwtUtil.isTokenExpired(token)) {
-                    User user = userRepository.findById(userId).orElseThrow(() -> new UsernameNotFoundException("User not found."));
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    // Mark the request as "authenticated" in Spring
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                UserPrincipal user = userPrincipalCache.get(userId);
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                // Mark the request as "authenticated" in Spring
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             } catch (Exception e) {
+                result = "invalid";
                 log.error("Exception occurred while validation the token.");
             }
         }
+        sample.stop(meterRegistry.timer("jwt.filter", "result", result));
         filterChain.doFilter(request, response);
     }
 }
@@ -0,0 +1,175 @@
+package in.joyhong.resumebuilderapi.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static in.joyhong.resumebuilderapi.util.AppConstants.*;
+
+/**
+ * Token-bucket throttling for the endpoints that cost real work per call
+ * (BCrypt, SMTP, Cloudinary). Runs after {@link JwtAuthenticationFilter} so
+ * per-user routes can key on the authenticated user; the others key on the
+ * client IP. Buckets live in a {@link ConcurrentHashMap} and are updated with
+ * compare-and-set, full ones are evicted on a schedule.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // At the cap a sweep runs for at most one new client per second, the rest fail open
+    private static final long CAPACITY_SWEEP_GAP_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<RateLimitPolicy> policies;
+    private final AtomicLong lastCapacitySweep = new AtomicLong(System.nanoTime() - CAPACITY_SWEEP_GAP_NANOS);
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxBuckets;
+
+    public RateLimitFilter(MeterRegistry meterRegistry,
+                           ObjectMapper objectMapper,
+                           @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.max-buckets:100000}") int maxBuckets,
+                           @Value("${app.rate-limit.login:10/1m}") String login,
+                           @Value("${app.rate-limit.register:5/10m}") String register,
+                           @Value("${app.rate-limit.resend-verification:3/10m}") String resendVerification,
+                           @Value("${app.rate-limit.upload-image:10/1m}") String uploadImage,
+                           @Value("${app.rate-limit.send-resume:10/1h}") String sendResume,
+                           @Value("${app.rate-limit.send-resume-bulk:3/1h}") String sendResumeBulk) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxBuckets = maxBuckets;
+        this.policies = List.of(
+                RateLimitPolicy.of("login", "POST", AUTH_CONTROLLER + LOGIN, false, login),
+                RateLimitPolicy.of("register", "POST", AUTH_CONTROLLER + REGISTER, false, register),
+                RateLimitPolicy.of("resend-verification", "POST", AUTH_CONTROLLER + RESEND_VERIFICATION, false, resendVerification),
+                RateLimitPolicy.of("upload-image", "POST", AUTH_CONTROLLER + UPLOAD_PROFILE, false, uploadImage),
+                RateLimitPolicy.of("send-resume", "POST", "/api/email/send-resume", true, sendResume),
+                RateLimitPolicy.of("send-resume-bulk", "POST", "/api/email/send-resume/bulk", true, sendResumeBulk));
+
+        Gauge.builder("ratelimit.buckets", buckets, Map::size)
+                .description("Rate limit buckets held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || policyFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RateLimitPolicy policy = policyFor(request);
+        String key = policy.name() + "|" + clientKey(request, policy);
+        long now = System.nanoTime();
+
+        // Lookup first, computeIfAbsent locks a bin and is only needed for new clients
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                sweepAtCapacity(now);
+            }
+            if (buckets.size() >= maxBuckets) {
+                // Fail open rather than lock out every new client, the count shows it happening
+                count(policy, "overflow");
+                filterChain.doFilter(request, response);
+                return;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(policy, now));
+        }
+
+        long waitNanos = bucket.tryAcquire(policy, now);
+        if (waitNanos == 0) {
+            count(policy, "allowed");
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        count(policy, "rejected");
+        long retryAfter = Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                Map.of("message", "Too many requests, try again in " + retryAfter + " seconds."));
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.entrySet().removeIf(entry -> entry.getValue().isFull(policyNamed(entry.getKey()), now));
+        if (before != buckets.size()) {
+            log.debug("Evicted {} idle rate limit buckets", before - buckets.size());
+        }
+    }
+
+    // The sweep is O(buckets), so new clients arriving at the cap must not each run it
+    private void sweepAtCapacity(long now) {
+        long last = lastCapacitySweep.get();
+        if (now - last >= CAPACITY_SWEEP_GAP_NANOS && lastCapacitySweep.compareAndSet(last, now)) {
+            evictIdle();
+        }
+    }
+
+    private RateLimitPolicy policyFor(HttpServletRequest request) {
+        // Decoded and normalized by the container, so /api/auth/%6Cogin or /api/./auth/login match too
+        String path = request.getServletPath() + Objects.requireNonNullElse(request.getPathInfo(), "");
+        for (RateLimitPolicy policy : policies) {
+            if (policy.matches(request.getMethod(), path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    private RateLimitPolicy policyNamed(String key) {
+        String name = key.substring(0, key.indexOf('|'));
+        for (RateLimitPolicy policy : policies) {
+            if (policy.name().equals(name)) {
+                return policy;
+            }
+        }
+        throw new IllegalStateException("No rate limit policy " + name);
+    }
+
+    // Behind a proxy, server.forward-headers-strategy makes getRemoteAddr the client's address
+    private static String clientKey(HttpServletRequest request, RateLimitPolicy policy) {
+        if (policy.perUser()) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+                return "user:" + principal.id();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void count(RateLimitPolicy policy, String result) {
+        meterRegistry.counter("ratelimit.requests", "policy", policy.name(), "result", result).increment();
+    }
+}
@@ -0,0 +1,39 @@
+package in.joyhong.resumebuilderapi.security;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+
+/**
+ * Limit for one route: {@code capacity} requests in a burst, refilled evenly
+ * over {@code period}. Keyed by the authenticated user when {@code perUser}
+ * is set, by client IP otherwise.
+ */
+public record RateLimitPolicy(String name, String method, String path, boolean perUser, int capacity, Duration period) {
+
+    public RateLimitPolicy {
+        if (capacity < 1 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Rate limit " + name + " needs a positive capacity and period.");
+        }
+    }
+
+    /**
+     * Parses a limit written as {@code <capacity>/<period>}, e.g. {@code 10/1m}.
+     */
+    public static RateLimitPolicy of(String name, String method, String path, boolean perUser, String limit) {
+        String[] parts = limit.split("/", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rate limit " + name + " must look like 10/1m, got " + limit);
+        }
+        return new RateLimitPolicy(name, method, path, perUser,
+                Integer.parseInt(parts[0].trim()), DurationStyle.detectAndParse(parts[1].trim()));
+    }
+
+    public double tokensPerNano() {
+        return (double) capacity / period.toNanos();
+    }
+
+    public boolean matches(String requestMethod, String requestPath) {
+        return method.equalsIgnoreCase(requestMethod) && path.equals(requestPath);
+    }
+}
@@ -0,0 +1,46 @@
+package in.joyhong.resumebuilderapi.security;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token bucket updated with compare-and-set on an immutable state, so callers
+ * on the same key never block each other. A rejected call does not write.
+ */
+final class TokenBucket {
+
+    private record State(double tokens, long updatedAt) {
+    }
+
+    private final AtomicReference<State> state;
+
+    TokenBucket(RateLimitPolicy policy, long now) {
+        this.state = new AtomicReference<>(new State(policy.capacity(), now));
+    }
+
+    /**
+     * Takes one token. Returns 0 when granted, otherwise the nanoseconds until
+     * a token will be available.
+     */
+    long tryAcquire(RateLimitPolicy policy, long now) {
+        while (true) {
+            State current = state.get();
+            double tokens = available(current, policy, now);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / policy.tokensPerNano());
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt())))) {
+                return 0;
+            }
+        }
+    }
+
+    // A full bucket behaves exactly like a new one and can be dropped
+    boolean isFull(RateLimitPolicy policy, long now) {
+        return available(state.get(), policy, now) >= policy.capacity();
+    }
+
+    private static double available(State state, RateLimitPolicy policy, long now) {
+        long elapsed = Math.max(0, now - state.updatedAt());
+        return Math.min(policy.capacity(), state.tokens() + elapsed * policy.tokensPerNano());
+    }
+}
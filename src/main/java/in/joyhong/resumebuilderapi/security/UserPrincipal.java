@@ -0,0 +1,33 @@
+package in.joyhong.resumebuilderapi.security;
+
+import in.joyhong.resumebuilderapi.document.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable snapshot of the authenticated user, stored in the SecurityContext
+ * instead of the mutable {@link User} document. It never carries the password
+ * hash or verification token.
+ */
+public record UserPrincipal(
+        String id,
+        String name,
+        String email,
+        String profileImageUrl,
+        String subscriptionPlan,
+        boolean emailVerified,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getProfileImageUrl(),
+                user.getSubscriptionPlan(),
+                user.isEmailVerified(),
+                user.getCreatedAt(),
+                user.getUpdatedAt());
+    }
+}
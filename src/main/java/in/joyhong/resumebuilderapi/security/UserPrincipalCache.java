@@ -0,0 +1,85 @@
+package in.joyhong.resumebuilderapi.security;
+
+import in.joyhong.resumebuilderapi.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, TTL-based cache of {@link UserPrincipal} snapshots so the JWT filter
+ * does not hit Mongo on every request. Anything that modifies a user must call
+ * {@link #invalidate(String)}.
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache {
+
+    private final Map<String, CachedPrincipal> principals = new ConcurrentHashMap<>();
+    private final UserRepository userRepository;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${app.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.principal-cache.ttl:5m}")
+    private Duration ttl;
+
+    public UserPrincipalCache(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.hits = Counter.builder("auth.principal.cache")
+                .tag("result", "hit")
+                .description("Principal lookups served from the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("auth.principal.cache")
+                .tag("result", "miss")
+                .description("Principal lookups that went to Mongo")
+                .register(meterRegistry);
+        Gauge.builder("auth.principal.cache.size", principals, Map::size)
+                .register(meterRegistry);
+    }
+
+    public UserPrincipal get(String userId) {
+        long now = System.nanoTime();
+        CachedPrincipal cached = principals.get(userId);
+        if (cached != null && now - cached.loadedAt() < ttl.toNanos()) {
+            hits.increment();
+            return cached.principal();
+        }
+
+        misses.increment();
+        UserPrincipal principal = userRepository.findById(userId)
+                .map(UserPrincipal::from)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found."));
+
+        if (principals.size() >= maxSize) {
+            evictExpired(now);
+        }
+        if (principals.size() < maxSize) {
+            principals.put(userId, new CachedPrincipal(principal, now));
+        }
+        return principal;
+    }
+
+    public void invalidate(String userId) {
+        if (userId != null) {
+            principals.remove(userId);
+            log.debug("Invalidated cached principal for user {}", userId);
+        }
+    }
+
+    private void evictExpired(long now) {
+        principals.values().removeIf(cached -> now - cached.loadedAt() >= ttl.toNanos());
+    }
+
+    private record CachedPrincipal(UserPrincipal principal, long loadedAt) {
+    }
+}
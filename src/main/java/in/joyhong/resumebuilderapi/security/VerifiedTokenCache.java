@@ -0,0 +1,78 @@
+package in.joyhong.resumebuilderapi.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified, so repeat
+ * requests with the same token skip the HMAC check. Entries are keyed by a
+ * SHA-256 digest of the token and dropped once the token's expiry has passed.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Map<String, VerifiedToken> tokens = new ConcurrentHashMap<>();
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    public String getUserId(String token) {
+        String key = digest(token);
+        VerifiedToken verified = tokens.get(key);
+        if (verified == null) {
+            return null;
+        }
+
+        // Never serve a token past its expiry
+        if (verified.expiresAt() <= System.currentTimeMillis()) {
+            tokens.remove(key, verified);
+            return null;
+        }
+        return verified.userId();
+    }
+
+    public void put(String token, String userId, Date expiration) {
+        if (userId == null || expiration == null) {
+            return;
+        }
+
+        if (tokens.size() >= maxSize) {
+            evictExpired();
+            // Still full with live tokens: skip caching rather than grow unbounded
+            if (tokens.size() >= maxSize) {
+                return;
+            }
+        }
+        tokens.put(digest(token), new VerifiedToken(userId, expiration.getTime()));
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        tokens.values().removeIf(verified -> verified.expiresAt() <= now);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record VerifiedToken(String userId, long expiresAt) {
+    }
+}
@@ -6,12 +6,17 @@ import in.joyhong.resumebuilderapi.dto.LoginRequest;
 import in.joyhong.resumebuilderapi.dto.RegisterRequest;
 import in.joyhong.resumebuilderapi.exception.ResourceExistsException;
 import in.joyhong.resumebuilderapi.repository.UserRepository;
+import in.joyhong.resumebuilderapi.security.UserPrincipal;
+import in.joyhong.resumebuilderapi.security.UserPrincipalCache;
 import in.joyhong.resumebuilderapi.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -23,9 +28,11 @@ import java.util.UUID;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final EmailService emailService;
-    private final PasswordEncoder passwordEncoder;
+    private final EmailOutboxService emailOutboxService;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
+    private final UserPrincipalCache userPrincipalCache;
+    private final MongoTemplate mongoTemplate;
 
     @Value("${app.base.url:http://localhost:8080}")
     private String appBaseUrl;
@@ -60,10 +67,11 @@ public class AuthService {
                     "<p>Or copy this link: " + link + "</p>" +
                     "<p>This link expires in 24 hours.</p>" + 
                     "</div>";
-            emailService.sendHtmlEmail(newUser.getEmail(), "Verify your email", html);
+            // Delivered in the background by EmailDispatcher
+            emailOutboxService.enqueueHtmlEmail(newUser.getEmail(), "Verify your email", html);
         } catch (Exception e) {
             log.error("Exception occurred at sendVerificationEmail(): {}", e.getMessage());
-            throw new RuntimeException("Failed to send verification email: " + e.getMessage());
+            throw new RuntimeException("Failed to queue verification email: " + e.getMessage());
         }
     }
     
@@ -84,7 +92,7 @@ public class AuthService {
         return User.builder()
                 .name(request.getName())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .profileImageUrl(request.getProfileImageUrl())
                 .subscriptionPlan("Basic")
                 .emailVerified(false)
@@ -106,6 +114,7 @@ public class AuthService {
         user.setVerificationToken(null);
         user.setVerificationExpires(null);
         userRepository.save(user);
+        userPrincipalCache.invalidate(user.getId());
     }
 
     public AuthResponse login(LoginRequest request) {
@@ -114,7 +123,7 @@ public class AuthService {
                 .orElseThrow(() -> new UsernameNotFoundException("Invalid email or password."));
 
         // Validate the password
-        if (!passwordEncoder.matches(request.getPassword(), existingUser.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), existingUser.getPassword())) {
             throw new UsernameNotFoundException("Invalid email or password.");
         }
 
@@ -122,6 +131,11 @@ public class AuthService {
             throw new RuntimeException("Please verify your email before logging in.");
         }
 
+        // Upgrade the stored hash when the configured cost factor has changed
+        if (passwordHashingService.needsRehash(existingUser.getPassword())) {
+            rehashPassword(existingUser, request.getPassword());
+        }
+
         // Create token
         String token = jwtUtil.generateToken(existingUser.getId());
 
@@ -131,6 +145,13 @@ public class AuthService {
         return response;
     }
 
+    private void rehashPassword(User user, String rawPassword) {
+        // Only the hash, and only if it is still the one just verified, so concurrent writes to the user survive
+        Query query = new Query(Criteria.where("_id").is(user.getId()).and("password").is(user.getPassword()));
+        Update update = new Update().set("password", passwordHashingService.encode(rawPassword));
+        mongoTemplate.updateFirst(query, update, User.class);
+    }
+
     public void resendVerification(String email) {
         // Fetch the user account by email
         User user = userRepository.findByEmail(email)
@@ -147,14 +168,24 @@ public class AuthService {
 
         // Update the user
         userRepository.save(user);
+        userPrincipalCache.invalidate(user.getId());
 
         // Resend the verification email
         sendVerificationEmail(user);
     }
 
     public AuthResponse getProfile(Object principalObject) {
-        User existingUser = (User) principalObject;
-        return toResponse(existingUser);
+        UserPrincipal principal = (UserPrincipal) principalObject;
+        return AuthResponse.builder()
+                .id(principal.id())
+                .name(principal.name())
+                .email(principal.email())
+                .profileImageUrl(principal.profileImageUrl())
+                .emailVerified(principal.emailVerified())
+                .subscriptionPlan(principal.subscriptionPlan())
+                .createdAt(principal.createdAt())
+                .updatedAt(principal.updatedAt())
+                .build();
     }
 
 }
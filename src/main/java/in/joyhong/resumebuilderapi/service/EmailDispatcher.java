@@ -0,0 +1,298 @@
+package in.joyhong.resumebuilderapi.service;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import in.joyhong.resumebuilderapi.document.EmailOutboxMessage;
+import in.joyhong.resumebuilderapi.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static in.joyhong.resumebuilderapi.document.EmailOutboxMessage.*;
+
+/**
+ * Drains the email outbox in batches. Each batch is claimed atomically (so
+ * several instances can run side by side) and sent over one SMTP connection.
+ * Failed messages are retried with exponential backoff and end up in the
+ * {@code dead} state after the configured number of attempts.
+ */
+@Service
+@Slf4j
+public class EmailDispatcher {
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+
+    private final Timer sendTimer;
+    private final Timer deliveryTimer;
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter deadCounter;
+    private final AtomicLong pendingDepth = new AtomicLong();
+    private final AtomicLong deadDepth = new AtomicLong();
+
+    @Value("${app.mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${app.mail.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    @Value("${app.mail.outbox.lease:5m}")
+    private Duration lease;
+
+    public EmailDispatcher(MongoTemplate mongoTemplate,
+                           GridFsTemplate gridFsTemplate,
+                           EmailOutboxRepository emailOutboxRepository,
+                           EmailService emailService,
+                           MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.gridFsTemplate = gridFsTemplate;
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+
+        this.sendTimer = Timer.builder("email.outbox.send")
+                .description("Time to send one batch over SMTP")
+                .register(meterRegistry);
+        this.deliveryTimer = Timer.builder("email.outbox.delivery")
+                .description("Time from enqueue to successful delivery")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("email.outbox.messages").tag("result", "sent").register(meterRegistry);
+        this.retryCounter = Counter.builder("email.outbox.messages").tag("result", "retry").register(meterRegistry);
+        this.deadCounter = Counter.builder("email.outbox.messages").tag("result", "dead").register(meterRegistry);
+        Gauge.builder("email.outbox.depth", pendingDepth, AtomicLong::get)
+                .tag("status", STATUS_PENDING)
+                .register(meterRegistry);
+        Gauge.builder("email.outbox.depth", deadDepth, AtomicLong::get)
+                .tag("status", STATUS_DEAD)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval:5000}")
+    public void dispatch() {
+        List<EmailOutboxMessage> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                sendBatch(batch);
+            }
+        } while (batch.size() == batchSize);
+
+        pendingDepth.set(emailOutboxRepository.countByStatus(STATUS_PENDING));
+        deadDepth.set(emailOutboxRepository.countByStatus(STATUS_DEAD));
+    }
+
+    private List<EmailOutboxMessage> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Due messages, plus messages whose previous claim was abandoned
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(STATUS_PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(STATUS_SENDING).and("lockedUntil").lt(now)))
+                .with(Sort.by("nextAttemptAt"));
+        Update update = new Update()
+                .set("status", STATUS_SENDING)
+                .set("lockedUntil", now.plus(lease))
+                .inc("attempts", 1);
+        FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
+
+        List<EmailOutboxMessage> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize) {
+            EmailOutboxMessage claimed = mongoTemplate.findAndModify(query, update, options, EmailOutboxMessage.class);
+            if (claimed == null) {
+                break;
+            }
+            batch.add(claimed);
+        }
+        return batch;
+    }
+
+    private void sendBatch(List<EmailOutboxMessage> batch) {
+        // Attachments are spooled to temp files that must outlive the send
+        List<Path> spooled = new ArrayList<>();
+        try {
+            sendBatch(batch, spooled);
+        } finally {
+            for (Path file : spooled) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete attachment spool file {}", file, e);
+                }
+            }
+        }
+    }
+
+    private void sendBatch(List<EmailOutboxMessage> batch, List<Path> spooled) {
+        Map<MimeMessage, EmailOutboxMessage> prepared = new IdentityHashMap<>();
+        for (EmailOutboxMessage outboxMessage : batch) {
+            try {
+                prepared.put(toMimeMessage(outboxMessage, spooled), outboxMessage);
+            } catch (Exception e) {
+                markFailed(outboxMessage, e);
+            }
+        }
+        if (prepared.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            sendTimer.record(() -> emailService.sendBatch(new ArrayList<>(prepared.keySet())));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                failures = allFailed(prepared, e);
+            }
+        } catch (MailException e) {
+            // Connection or authentication failure, nothing was sent
+            failures = allFailed(prepared, e);
+        }
+
+        for (Map.Entry<MimeMessage, EmailOutboxMessage> entry : prepared.entrySet()) {
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                markSent(entry.getValue());
+            } else {
+                markFailed(entry.getValue(), failure);
+            }
+        }
+    }
+
+    private MimeMessage toMimeMessage(EmailOutboxMessage outboxMessage, List<Path> spooled) throws Exception {
+        if (!outboxMessage.isHtml() && Objects.nonNull(outboxMessage.getAttachmentId())) {
+            GridFSFile file = gridFsTemplate.findOne(attachmentQuery(outboxMessage));
+            if (file == null) {
+                throw new IllegalStateException("Attachment " + outboxMessage.getAttachmentId() + " not found.");
+            }
+
+            // Copy the GridFS chunks to disk, JavaMail reads them back while encoding
+            Path attachment = Files.createTempFile("mail-attachment-", ".tmp");
+            spooled.add(attachment);
+            try (InputStream in = gridFsTemplate.getResource(file).getInputStream()) {
+                Files.copy(in, attachment, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return emailService.buildMessageWithAttachment(outboxMessage.getRecipient(), outboxMessage.getSubject(),
+                    outboxMessage.getBody(), attachment.toFile(), outboxMessage.getAttachmentFilename());
+        }
+        return emailService.buildHtmlMessage(outboxMessage.getRecipient(), outboxMessage.getSubject(), outboxMessage.getBody());
+    }
+
+    private void markSent(EmailOutboxMessage outboxMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean owned = mongoTemplate.updateFirst(byLease(outboxMessage),
+                new Update()
+                        .set("status", STATUS_SENT)
+                        .set("sentAt", now)
+                        .set("updatedAt", now)
+                        .unset("lockedUntil")
+                        .unset("lastError"),
+                EmailOutboxMessage.class).getMatchedCount() > 0;
+        if (!owned) {
+            // The lease ran out during the send and another dispatcher has the message now
+            log.warn("Email {} was sent after its lease expired, it may be delivered twice", outboxMessage.getId());
+            return;
+        }
+
+        deleteAttachment(outboxMessage);
+        if (Objects.nonNull(outboxMessage.getCreatedAt())) {
+            deliveryTimer.record(Duration.between(outboxMessage.getCreatedAt(), now));
+        }
+        sentCounter.increment();
+    }
+
+    private void markFailed(EmailOutboxMessage outboxMessage, Exception e) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("lastError", e.getMessage())
+                .set("updatedAt", now)
+                .unset("lockedUntil");
+
+        boolean dead = outboxMessage.getAttempts() >= maxAttempts;
+        if (dead) {
+            update.set("status", STATUS_DEAD);
+        } else {
+            update.set("status", STATUS_PENDING).set("nextAttemptAt", now.plus(backoff(outboxMessage.getAttempts())));
+        }
+        if (mongoTemplate.updateFirst(byLease(outboxMessage), update, EmailOutboxMessage.class).getMatchedCount() == 0) {
+            log.warn("Lease on email {} expired, leaving it to the dispatcher that reclaimed it", outboxMessage.getId());
+            return;
+        }
+
+        if (dead) {
+            // A dead message is never sent, its attachment would only take up space
+            deleteAttachment(outboxMessage);
+            deadCounter.increment();
+            log.error("Giving up on email {} to {} after {} attempts: {}", outboxMessage.getId(),
+                    outboxMessage.getRecipient(), outboxMessage.getAttempts(), e.getMessage());
+        } else {
+            retryCounter.increment();
+            log.warn("Email {} to {} failed (attempt {}), will retry: {}", outboxMessage.getId(),
+                    outboxMessage.getRecipient(), outboxMessage.getAttempts(), e.getMessage());
+        }
+    }
+
+    private void deleteAttachment(EmailOutboxMessage outboxMessage) {
+        if (Objects.nonNull(outboxMessage.getAttachmentId())) {
+            gridFsTemplate.delete(attachmentQuery(outboxMessage));
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private static Map<Object, Exception> allFailed(Map<MimeMessage, EmailOutboxMessage> prepared, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        prepared.keySet().forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    // Matches only while this dispatcher's claim is still the current one
+    private static Query byLease(EmailOutboxMessage outboxMessage) {
+        return new Query(Criteria.where("_id").is(outboxMessage.getId())
+                .and("status").is(STATUS_SENDING)
+                .and("lockedUntil").is(outboxMessage.getLockedUntil()));
+    }
+
+    private static Query attachmentQuery(EmailOutboxMessage outboxMessage) {
+        return new Query(Criteria.where("_id").is(new ObjectId(outboxMessage.getAttachmentId())));
+    }
+}
@@ -0,0 +1,81 @@
+package in.joyhong.resumebuilderapi.service;
+
+import com.mongodb.MongoGridFSException;
+import in.joyhong.resumebuilderapi.document.EmailOutboxMessage;
+import in.joyhong.resumebuilderapi.exception.PayloadTooLargeException;
+import in.joyhong.resumebuilderapi.repository.EmailOutboxRepository;
+import in.joyhong.resumebuilderapi.util.SizeLimitedInputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Persists outgoing emails so callers return without waiting on SMTP.
+ * {@link EmailDispatcher} delivers them in the background.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final GridFsTemplate gridFsTemplate;
+
+    @Value("${app.mail.attachment.max-size:10MB}")
+    private DataSize maxAttachmentSize;
+
+    public EmailOutboxMessage enqueueHtmlEmail(String to, String subject, String htmlContent) {
+        log.info("Inside EmailOutboxService - enqueueHtmlEmail(): {}, {}", to, subject);
+        EmailOutboxMessage message = EmailOutboxMessage.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(htmlContent)
+                .html(true)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        return emailOutboxRepository.save(message);
+    }
+
+    /**
+     * Streams the attachment into GridFS chunk by chunk; it is never held in
+     * memory in full. The stream is not closed here.
+     */
+    public EmailOutboxMessage enqueueEmailWithAttachment(String to, String subject, String body, InputStream attachment,
+                                                         long declaredSize, String filename) {
+        log.info("Inside EmailOutboxService - enqueueEmailWithAttachment(): {}, {}, {}", to, subject, filename);
+        if (declaredSize > maxAttachmentSize.toBytes()) {
+            throw new PayloadTooLargeException("Attachment exceeds the maximum size of " + maxAttachmentSize + ".");
+        }
+
+        // Attachments can exceed the 16MB document limit, keep them in GridFS
+        ObjectId attachmentId;
+        try {
+            attachmentId = gridFsTemplate.store(new SizeLimitedInputStream(attachment, maxAttachmentSize.toBytes()),
+                    filename, "application/pdf");
+        } catch (MongoGridFSException e) {
+            // A failed read aborts the upload and deletes the chunks written so far
+            if (e.getCause() instanceof SizeLimitedInputStream.LimitExceededException tooLarge) {
+                throw new PayloadTooLargeException(tooLarge.getMessage());
+            }
+            throw e;
+        }
+
+        EmailOutboxMessage message = EmailOutboxMessage.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(body)
+                .html(false)
+                .attachmentId(attachmentId.toHexString())
+                .attachmentFilename(filename)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+        return emailOutboxRepository.save(message);
+    }
+}
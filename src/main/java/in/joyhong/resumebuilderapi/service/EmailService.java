@@ -1,16 +1,39 @@
 package in.joyhong.resumebuilderapi.service;
 
+import in.joyhong.resumebuilderapi.dto.BulkSendResult;
+import in.joyhong.resumebuilderapi.util.BlockingCallExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.SharedFileInputStream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -19,26 +42,181 @@ public class EmailService {
     private String fromEmail;
 
     private final JavaMailSender mailSender;
+    private final BlockingCallExecutor blockingCallExecutor;
+    private final SmtpTransportPool smtpTransportPool;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.mail.bulk.max-recipients:50}")
+    private int maxBulkRecipients;
 
     public void sendHtmlEmail(String to, String subject, String htmlContent) throws MessagingException {
         log.info("Inside EmailService - sendHtmlEmail(): {}, {}, {}", to, subject, htmlContent);
+        send(buildHtmlMessage(to, subject, htmlContent));
+    }
+
+    public void sendEmailWithAttachment(String to, String subject, String body, File attachment, String filename) throws MessagingException {
+        send(buildMessageWithAttachment(to, subject, body, attachment, filename));
+    }
+
+    public MimeMessage buildHtmlMessage(String to, String subject, String htmlContent) throws MessagingException {
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
         helper.setFrom(fromEmail);
         helper.setTo(to);
         helper.setSubject(subject);
         helper.setText(htmlContent, true);
-        mailSender.send(message);
+        return message;
     }
 
-    public void sendEmailWithAttachment(String to, String subject, String body, byte[] attachment, String filename) throws MessagingException {
+    /**
+     * The attachment is read from {@code attachment} while the message is being
+     * written, so the file must exist until the message has been sent.
+     */
+    public MimeMessage buildMessageWithAttachment(String to, String subject, String body, File attachment, String filename) throws MessagingException {
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
         helper.setFrom(fromEmail);
         helper.setTo(to);
         helper.setSubject(subject);
         helper.setText(body);
-        helper.addAttachment(filename, new ByteArrayResource(attachment));
-        mailSender.send(message);
+        // File-backed DataSource, encoded straight from disk onto the SMTP connection
+        helper.addAttachment(filename, new FileSystemResource(attachment));
+        return message;
+    }
+
+    /**
+     * Sends one message with an attachment to each recipient separately. The
+     * MIME body is encoded once to a temp file; every recipient gets a copy that
+     * shares those bytes and only has its own To and Message-ID headers. Sends
+     * run in parallel over {@link SmtpTransportPool} connections.
+     */
+    public List<BulkSendResult> sendBulk(List<String> recipients, String subject, String body,
+                                         InputStreamSource attachment, String filename) throws MessagingException, IOException {
+        if (recipients.size() > maxBulkRecipients) {
+            throw new IllegalArgumentException("At most " + maxBulkRecipients + " recipients are allowed.");
+        }
+
+        // Encode the message, attachment included, exactly once
+        MimeMessage template = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(template, true, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setSubject(subject);
+        helper.setText(body);
+        helper.addAttachment(filename, attachment);
+        template.saveChanges();
+
+        Path rendered = Files.createTempFile("mail-bulk-", ".eml");
+        try {
+            try (OutputStream out = Files.newOutputStream(rendered)) {
+                template.writeTo(out);
+            }
+
+            try (SharedFileInputStream shared = new SharedFileInputStream(rendered.toFile())) {
+                List<CompletableFuture<BulkSendResult>> sends = new ArrayList<>(recipients.size());
+                try {
+                    for (String recipient : recipients) {
+                        sends.add(CompletableFuture.supplyAsync(() -> sendCopy(shared, recipient), blockingCallExecutor.ioExecutor()));
+                    }
+                } finally {
+                    // A rejected submission must not close or delete the file under sends already running
+                    CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                            .exceptionally(e -> null)
+                            .join();
+                }
+                return sends.stream().map(CompletableFuture::join).toList();
+            }
+        } finally {
+            Files.deleteIfExists(rendered);
+        }
+    }
+
+    private BulkSendResult sendCopy(SharedFileInputStream shared, String recipient) {
+        BulkSendResult.BulkSendResultBuilder result = BulkSendResult.builder().recipient(recipient);
+        InternetAddress address;
+        try {
+            address = new InternetAddress(recipient, true);
+        } catch (AddressException e) {
+            meterRegistry.counter("email.bulk.messages", "result", "invalid").increment();
+            return result.status("invalid").error(e.getMessage()).build();
+        }
+
+        SharedMimeMessage copy = null;
+        try {
+            // Parsing only reads the headers, the body stays a view into the shared file
+            try (InputStream in = shared.newStream(0, -1)) {
+                copy = new SharedMimeMessage(smtpTransportPool.session(), in);
+            }
+            copy.setRecipient(Message.RecipientType.TO, address);
+            copy.setHeader("Message-ID", newMessageId());
+            MimeMessage message = copy;
+            blockingCallExecutor.call(() -> {
+                smtpTransportPool.send(message, new Address[]{address});
+                return null;
+            });
+            meterRegistry.counter("email.bulk.messages", "result", "sent").increment();
+            return result.status("sent").build();
+        } catch (Exception e) {
+            meterRegistry.counter("email.bulk.messages", "result", "failed").increment();
+            log.warn("Bulk email to {} failed: {}", recipient, e.getMessage());
+            return result.status("failed").error(e.getMessage()).build();
+        } finally {
+            if (Objects.nonNull(copy)) {
+                copy.release();
+            }
+        }
+    }
+
+    private String newMessageId() {
+        int at = fromEmail.lastIndexOf('@');
+        String domain = at >= 0 ? fromEmail.substring(at + 1).replace(">", "").trim() : "localhost";
+        return "<" + UUID.randomUUID() + "@" + domain + ">";
+    }
+
+    // Parsed copy whose body is a slice of the shared file, released as soon as it has been sent
+    private static final class SharedMimeMessage extends MimeMessage {
+
+        private SharedMimeMessage(Session session, InputStream in) throws MessagingException {
+            super(session, in);
+        }
+
+        private void release() {
+            try {
+                if (Objects.nonNull(contentStream)) {
+                    contentStream.close();
+                }
+            } catch (IOException e) {
+                log.debug("Could not close shared message body: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sends all messages over a single SMTP connection. Messages that could not
+     * be delivered are reported through {@link org.springframework.mail.MailSendException#getFailedMessages()}.
+     */
+    public void sendBatch(List<MimeMessage> messages) {
+        timeSmtp("batch", () -> blockingCallExecutor.call(() -> {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+            return null;
+        }));
+    }
+
+    private void send(MimeMessage message) {
+        // SMTPTransport blocks inside synchronized methods, keep it off virtual threads
+        timeSmtp("single", () -> blockingCallExecutor.call(() -> {
+            mailSender.send(message);
+            return null;
+        }));
+    }
+
+    private void timeSmtp(String mode, Runnable send) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            send.run();
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer("email.smtp.send", "mode", mode, "outcome", outcome));
+        }
     }
 }
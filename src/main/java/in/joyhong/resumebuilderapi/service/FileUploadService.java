@@ -1,34 +1,114 @@
 package in.joyhong.resumebuilderapi.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import in.joyhong.resumebuilderapi.document.ImageAsset;
 import in.joyhong.resumebuilderapi.document.Resume;
 import in.joyhong.resumebuilderapi.dto.AuthResponse;
-import in.joyhong.resumebuilderapi.repository.ResumeRepository;
+import in.joyhong.resumebuilderapi.exception.PayloadTooLargeException;
+import in.joyhong.resumebuilderapi.repository.ImageAssetRepository;
+import in.joyhong.resumebuilderapi.storage.BlobStore;
+import in.joyhong.resumebuilderapi.util.BlockingCallExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FileUploadService {
 
-    private final Cloudinary cloudinary;
+    private final BlobStore blobStore;
     private final AuthService authService;
-    private final ResumeRepository resumeRepository;
+    private final MongoTemplate mongoTemplate;
+    private final BlockingCallExecutor blockingCallExecutor;
+    private final ImageAssetRepository imageAssetRepository;
+    private final MeterRegistry meterRegistry;
+    private final ImageNormalizer imageNormalizer;
+
+    @Value("${app.upload.max-image-size:5MB}")
+    private DataSize maxImageSize;
+
+    // Thumbnails are rendered by ThumbnailService, a client upload would race the render
+    @Value("${app.thumbnail.enabled:true}")
+    private boolean serverThumbnails;
 
     public Map<String, String> uploadSingleImage(MultipartFile file) throws IOException {
-        Map<String, Object> imageUploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.asMap("resource_type", "image"));
-        log.info("Inside FileUploadService - uploadSingleImage() {}", imageUploadResult.get("secure_url").toString());
-        return Map.of("imageUrl", imageUploadResult.get("secure_url").toString());
+        return uploadSingleImage(file, ImageNormalizer.Purpose.PROFILE);
+    }
+
+    public Map<String, String> uploadSingleImage(MultipartFile file, ImageNormalizer.Purpose purpose) throws IOException {
+        // Spool the part to disk, the image never sits in the heap in full
+        SpooledImage spooled = spool(file);
+        try {
+            // Identical bytes were stored for the same purpose before, reuse that blob
+            String assetKey = spooled.sha256() + "-" + purpose.name().toLowerCase();
+            Optional<ImageAsset> existing = imageAssetRepository.findById(assetKey);
+            if (existing.isPresent()) {
+                meterRegistry.counter("image.dedup", "result", "hit").increment();
+                return Map.of("imageUrl", existing.get().getUrl());
+            }
+            meterRegistry.counter("image.dedup", "result", "miss").increment();
+
+            // Resize and strip metadata before anything leaves the server
+            ImageNormalizer.NormalizedImage normalized = imageNormalizer.normalize(spooled.path(), purpose);
+            try {
+                // Key derived from the hash, so a concurrent upload of the same image lands on one blob and never rewrites it
+                String imageUrl = blobStore.put("images/" + assetKey, normalized.path(), normalized.contentType(), false);
+                log.info("Inside FileUploadService - uploadSingleImage() {}", imageUrl);
+                remember(assetKey, imageUrl, Files.size(normalized.path()));
+                return Map.of("imageUrl", imageUrl);
+            } finally {
+                Files.deleteIfExists(normalized.path());
+            }
+        } finally {
+            Files.deleteIfExists(spooled.path());
+        }
+    }
+
+    private void remember(String assetKey, String imageUrl, long size) {
+        try {
+            imageAssetRepository.insert(ImageAsset.builder()
+                    .id(assetKey)
+                    .url(imageUrl)
+                    .size(size)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (DuplicateKeyException e) {
+            // Another request stored the same image first
+            log.debug("Image asset {} already recorded", assetKey);
+        }
+    }
+
+    public String uploadGeneratedImage(byte[] bytes, String key) throws IOException {
+        // Fixed key, so a new render replaces the previous blob
+        return blobStore.put(key, bytes, "image/png", true);
     }
 
     public Map<String, String> uploadResumeImages(String resumeId,
@@ -38,34 +118,113 @@ public class FileUploadService {
         // Get the current profile
         AuthResponse response = authService.getProfile(principal);
 
-        // Get the existing resume
-        Resume existingResume = resumeRepository.findByUserIdAndId(response.getId(), resumeId)
-                .orElseThrow(() -> new RuntimeException("Resume not found."));
+        // Make sure the resume exists before paying for any upload
+        Query ownedResume = new Query(Criteria.where("_id").is(resumeId).and("userId").is(response.getId()));
+        if (!mongoTemplate.exists(ownedResume, Resume.class)) {
+            throw new RuntimeException("Resume not found.");
+        }
+
+        // Older clients still send a thumbnail part, it is dropped unread
+        if (serverThumbnails && Objects.nonNull(thumbnail)) {
+            log.debug("Ignoring client thumbnail for resume {}, thumbnails are rendered on the server", resumeId);
+            thumbnail = null;
+        }
+        if (Objects.isNull(thumbnail) && Objects.isNull(profileImage)) {
+            // Nothing changed, leave the version (and the editor's ETag) alone
+            return Map.of("message", "No images uploaded.");
+        }
+
+        // Upload both images at the same time
+        CompletableFuture<String> thumbnailUpload = uploadAsync(thumbnail, ImageNormalizer.Purpose.THUMBNAIL);
+        CompletableFuture<String> profileImageUpload = uploadAsync(profileImage, ImageNormalizer.Purpose.PROFILE);
+        String thumbnailLink = await(thumbnailUpload);
+        String profilePreviewUrl = await(profileImageUpload);
 
-        // Upload the resume images and set the resume
+        // Write both links in one update
         Map<String, String> returnValue = new HashMap<>();
-        Map<String, String> uploadResult;
+        Update update = new Update();
+        if (Objects.nonNull(thumbnailLink)) {
+            update.set("thumbnailLink", thumbnailLink);
+            returnValue.put("thumbnailLink", thumbnailLink);
+        }
+        if (Objects.nonNull(profilePreviewUrl)) {
+            update.set("profileInfo.profilePreviewUrl", profilePreviewUrl);
+            returnValue.put("profilePreviewUrl", profilePreviewUrl);
+        }
+        update.set("updatedAt", LocalDateTime.now());
+        update.inc("version", 1);
+        if (mongoTemplate.updateFirst(ownedResume, update, Resume.class).getMatchedCount() == 0) {
+            throw new RuntimeException("Resume not found.");
+        }
+        returnValue.put("message", "Images uploaded successfully.");
+
+        // Return result
+        return returnValue;
+    }
 
-        if (Objects.nonNull(thumbnail)) {
-            uploadResult = uploadSingleImage(thumbnail);
-            existingResume.setThumbnailLink(uploadResult.get("imageUrl"));
-            returnValue.put("thumbnailLink", uploadResult.get("imageUrl"));
+    private CompletableFuture<String> uploadAsync(MultipartFile file, ImageNormalizer.Purpose purpose) {
+        if (Objects.isNull(file)) {
+            return CompletableFuture.completedFuture(null);
         }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return uploadSingleImage(file, purpose).get("imageUrl");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, blockingCallExecutor.ioExecutor());
+    }
 
-        if (Objects.nonNull(profileImage)) {
-            uploadResult = uploadSingleImage(profileImage);
-            if (Objects.isNull(existingResume.getProfileInfo())) {
-                existingResume.setProfileInfo(new Resume.ProfileInfo());
+    private static String await(CompletableFuture<String> upload) throws IOException {
+        try {
+            return upload.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
             }
-            existingResume.getProfileInfo().setProfilePreviewUrl(uploadResult.get("imageUrl"));
-            returnValue.put("profilePreviewUrl", uploadResult.get("imageUrl"));
+            throw e;
         }
+    }
 
-        // Update the details into database
-        resumeRepository.save(existingResume);
-        returnValue.put("message", "Images uploaded successfully.");
+    private record SpooledImage(Path path, String sha256) {
+    }
 
-        // Return result
-        return returnValue;
+    private SpooledImage spool(MultipartFile file) throws IOException {
+        long maxBytes = maxImageSize.toBytes();
+        if (file.getSize() > maxBytes) {
+            throw new PayloadTooLargeException("Image exceeds the maximum size of " + maxImageSize + ".");
+        }
+
+        // Copy in chunks and re-check the limit, the declared size is not trusted; hash on the way through
+        MessageDigest sha256 = newSha256();
+        Path spooled = Files.createTempFile("upload-", ".img");
+        long total = 0;
+        try (InputStream in = new DigestInputStream(file.getInputStream(), sha256);
+             OutputStream out = Files.newOutputStream(spooled)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new PayloadTooLargeException("Image exceeds the maximum size of " + maxImageSize + ".");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        return new SpooledImage(spooled, HexFormat.of().formatHex(sha256.digest()));
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
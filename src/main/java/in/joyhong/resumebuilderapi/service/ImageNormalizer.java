@@ -0,0 +1,275 @@
+package in.joyhong.resumebuilderapi.service;
+
+import in.joyhong.resumebuilderapi.exception.PayloadTooLargeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Decodes an uploaded image, scales it down to the size its purpose needs and
+ * re-encodes it without metadata; the EXIF orientation of a JPEG is applied to
+ * the pixels first since the tag itself is dropped. Dimensions are read from
+ * the header first, oversized images are rejected before any pixel is
+ * decoded, and large images are subsampled while decoding so memory stays
+ * proportional to the output.
+ */
+@Component
+@Slf4j
+public class ImageNormalizer {
+
+    public enum Purpose {
+        THUMBNAIL(600, 850),
+        PROFILE(400, 400);
+
+        private final int maxWidth;
+        private final int maxHeight;
+
+        Purpose(int maxWidth, int maxHeight) {
+            this.maxWidth = maxWidth;
+            this.maxHeight = maxHeight;
+        }
+    }
+
+    public record NormalizedImage(Path path, String format) {
+
+        public String contentType() {
+            return "jpg".equals(format) ? "image/jpeg" : "image/png";
+        }
+    }
+
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+    private static final int APP1_MARKER = 0xE1;
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private record Decoded(BufferedImage image, int orientation) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final long maxPixels;
+    private final Semaphore decodePermits;
+
+    public ImageNormalizer(MeterRegistry meterRegistry,
+                           @Value("${app.image.max-pixels:40000000}") long maxPixels,
+                           @Value("${app.image.max-concurrent-decodes:0}") int maxConcurrentDecodes) {
+        this.meterRegistry = meterRegistry;
+        this.maxPixels = maxPixels;
+        // Decoded rasters are the big allocations, so cap how many exist at once
+        int permits = maxConcurrentDecodes > 0 ? maxConcurrentDecodes : Runtime.getRuntime().availableProcessors();
+        this.decodePermits = new Semaphore(permits);
+    }
+
+    /**
+     * Writes a normalized copy of {@code source} to a new temp file; the caller
+     * deletes it.
+     */
+    public NormalizedImage normalize(Path source, Purpose purpose) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            decodePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to process image", e);
+        }
+        try {
+            Decoded decoded = decode(source, purpose);
+            BufferedImage scaled = scale(decoded.image(), decoded.orientation(), purpose);
+            return encode(scaled);
+        } finally {
+            decodePermits.release();
+            sample.stop(Timer.builder("image.normalize")
+                    .description("Time to decode, resize and re-encode an uploaded image")
+                    .tag("purpose", purpose.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    private Decoded decode(Path source, Purpose purpose) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                // Metadata is only needed for the EXIF orientation of a JPEG
+                boolean jpeg = "jpeg".equalsIgnoreCase(reader.getFormatName());
+                reader.setInput(input, true, !jpeg);
+
+                // Only the header is read here
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new PayloadTooLargeException("Image has too many pixels (" + width + "x" + height + ").");
+                }
+                int orientation = jpeg ? exifOrientation(reader) : 1;
+
+                // Skip source pixels while decoding, keeping about twice the target size for a smooth downscale
+                boolean sideways = orientation >= 5;
+                int orientedWidth = sideways ? height : width;
+                int orientedHeight = sideways ? width : height;
+                int subsampling = Math.max(1, Math.min(orientedWidth / purpose.maxWidth, orientedHeight / purpose.maxHeight) / 2);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return new Decoded(reader.read(0, param), orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int orientation, Purpose purpose) {
+        boolean sideways = orientation >= 5;
+        int orientedWidth = sideways ? image.getHeight() : image.getWidth();
+        int orientedHeight = sideways ? image.getWidth() : image.getHeight();
+        double factor = Math.min(1.0, Math.min(
+                (double) purpose.maxWidth / orientedWidth,
+                (double) purpose.maxHeight / orientedHeight));
+        int width = Math.max(1, (int) Math.round(orientedWidth * factor));
+        int height = Math.max(1, (int) Math.round(orientedHeight * factor));
+
+        // Orient, then scale to the rounded size, in a single draw
+        AffineTransform transform = AffineTransform.getScaleInstance(
+                (double) width / orientedWidth, (double) height / orientedHeight);
+        transform.concatenate(orientationTransform(orientation, image.getWidth(), image.getHeight()));
+
+        // Always redraw into a plain RGB(A) raster, which also drops any color profile quirks
+        boolean alpha = image.getColorModel().hasAlpha();
+        BufferedImage scaled = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Maps the stored raster onto its upright position for EXIF orientations
+     * 2 to 8; anything else is left as stored.
+     */
+    private static AffineTransform orientationTransform(int orientation, int width, int height) {
+        return switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);       // mirrored horizontally
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height); // rotated 180
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);      // mirrored vertically
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);            // transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);      // rotated 90 clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width); // transversed
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);       // rotated 90 counter-clockwise
+            default -> new AffineTransform();
+        };
+    }
+
+    // Reads tag 0x0112 from IFD0 of the APP1 Exif segment; a missing or malformed tag means upright
+    private static int exifOrientation(ImageReader reader) {
+        try {
+            IIOMetadata metadata = reader.getImageMetadata(0);
+            if (metadata == null || !JPEG_METADATA_FORMAT.equals(metadata.getNativeMetadataFormatName())) {
+                return 1;
+            }
+            Node root = metadata.getAsTree(JPEG_METADATA_FORMAT);
+            for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (!"markerSequence".equals(child.getNodeName())) {
+                    continue;
+                }
+                for (Node marker = child.getFirstChild(); marker != null; marker = marker.getNextSibling()) {
+                    if ("unknown".equals(marker.getNodeName())
+                            && String.valueOf(APP1_MARKER).equals(((IIOMetadataNode) marker).getAttribute("MarkerTag"))
+                            && ((IIOMetadataNode) marker).getUserObject() instanceof byte[] segment) {
+                        int orientation = orientationFromExif(segment);
+                        if (orientation > 0) {
+                            return orientation;
+                        }
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not read EXIF orientation, keeping the image as stored", e);
+        }
+        return 1;
+    }
+
+    private static int orientationFromExif(byte[] segment) {
+        // "Exif\0\0" followed by a TIFF header
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f'
+                || segment[4] != 0 || segment[5] != 0) {
+            return 0;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(segment, 6, segment.length - 6).slice();
+        if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (tiff.get(0) != 'M' || tiff.get(1) != 'M') {
+            return 0;
+        }
+        long ifd = Integer.toUnsignedLong(tiff.getInt(4));
+        if (ifd < 8 || ifd + 2 > tiff.limit()) {
+            return 0;
+        }
+        int entries = Short.toUnsignedInt(tiff.getShort((int) ifd));
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                return 0;
+            }
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == ORIENTATION_TAG) {
+                int value = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static NormalizedImage encode(BufferedImage image) throws IOException {
+        // Transparency needs PNG, everything else is smaller as JPEG
+        String format = image.getColorModel().hasAlpha() ? "png" : "jpg";
+        Path target = Files.createTempFile("normalized-", "." + format);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+            try {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if ("jpg".equals(format)) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(JPEG_QUALITY);
+                }
+                // No metadata is passed, so EXIF/GPS and comments are not carried over
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return new NormalizedImage(target, format);
+    }
+}
@@ -0,0 +1,125 @@
+package in.joyhong.resumebuilderapi.service;
+
+import in.joyhong.resumebuilderapi.exception.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated, size-bounded pool so a
+ * login/register burst cannot take every core away from the rest of the API.
+ * When the queue is full callers get a {@link ServiceBusyException} (503)
+ * immediately instead of piling up.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private static final String OP_ENCODE = "encode";
+    private static final String OP_MATCHES = "matches";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor hashingPool;
+    private final MeterRegistry meterRegistry;
+    private final long retryAfterSeconds;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.security.hashing.threads:0}") int threads,
+                                  @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.security.hashing.retry-after-seconds:2}") long retryAfterSeconds) {
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        // Default to half the cores, leaving the rest for request handling
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.hashingPool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String encode(String rawPassword) {
+        return execute(OP_ENCODE, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(OP_MATCHES, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True when the hash is weaker than the configured encoder would produce,
+     * so it should be replaced after a successful login.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        try {
+            return passwordEncoder.upgradeEncoding(encodedPassword);
+        } catch (IllegalArgumentException e) {
+            // Not a hash the encoder understands, leave it alone
+            return false;
+        }
+    }
+
+    private <T> T execute(String operation, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = hashingPool.submit(() -> {
+                long startedAt = System.nanoTime();
+                timer("password.hash.wait", operation).record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    timer("password.hash.time", operation).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("password.hash.rejected", "operation", operation).increment();
+            log.warn("Password hashing queue is full, rejecting {} request", operation);
+            throw new ServiceBusyException("Too many authentication requests. Please try again shortly.", retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private Timer timer(String name, String operation) {
+        return Timer.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+}
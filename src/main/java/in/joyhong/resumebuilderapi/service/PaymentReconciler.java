@@ -0,0 +1,248 @@
+package in.joyhong.resumebuilderapi.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import in.joyhong.resumebuilderapi.document.Payment;
+import in.joyhong.resumebuilderapi.document.ReconciliationCheckpoint;
+import in.joyhong.resumebuilderapi.payment.GatewayOrder;
+import in.joyhong.resumebuilderapi.payment.PaymentGateway;
+import in.joyhong.resumebuilderapi.util.BlockingCallExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catches up on orders whose outcome never reached us (closed tab, lost
+ * webhook). Pages through stale "created" payments on (createdAt, _id),
+ * asks the gateway about each page with bounded parallelism and writes the
+ * resulting status changes in one bulk write per page. The keyset position is
+ * checkpointed after every page, so a restarted instance carries on where
+ * the previous one stopped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReconciler {
+
+    static final String CHECKPOINT_ID = "payments";
+
+    private final MongoTemplate mongoTemplate;
+    private final PaymentGateway paymentGateway;
+    private final PaymentService paymentService;
+    private final BlockingCallExecutor blockingCallExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    @Value("${app.payment.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.payment.reconcile.page-size:100}")
+    private int pageSize;
+
+    @Value("${app.payment.reconcile.parallelism:8}")
+    private int parallelism;
+
+    // Orders younger than this are still in the hands of the browser or the webhook
+    @Value("${app.payment.reconcile.stale-after:30m}")
+    private Duration staleAfter;
+
+    // Unpaid orders older than this are given up on and marked failed
+    @Value("${app.payment.reconcile.expire-after:24h}")
+    private Duration expireAfter;
+
+    @Value("${app.payment.reconcile.lease:5m}")
+    private Duration lease;
+
+    private record Lookup(Payment payment, GatewayOrder order) {
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.reconcile.interval:300000}",
+            initialDelayString = "${app.payment.reconcile.initial-delay:60000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+
+        ReconciliationCheckpoint checkpoint = acquireLease();
+        if (Objects.isNull(checkpoint)) {
+            log.debug("Payment reconciliation is running elsewhere, skipping");
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lastCreatedAt = checkpoint.getLastCreatedAt();
+        String lastId = checkpoint.getLastId();
+        if (Objects.nonNull(lastCreatedAt)) {
+            log.info("Resuming payment reconciliation after {} / {}", lastCreatedAt, lastId);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long started = System.nanoTime();
+        int reconciled = 0;
+        boolean completed = false;
+        try {
+            List<Payment> page;
+            do {
+                page = nextPage(now.minus(staleAfter), lastCreatedAt, lastId);
+                if (page.isEmpty()) {
+                    break;
+                }
+                reconcile(page, now);
+                reconciled += page.size();
+
+                // Advance the checkpoint, this also renews the lease
+                Payment last = page.get(page.size() - 1);
+                lastCreatedAt = last.getCreatedAt();
+                lastId = last.getUserId();
+                if (!saveCheckpoint(lastCreatedAt, lastId)) {
+                    log.warn("Lost the payment reconciliation lease, stopping");
+                    return;
+                }
+            } while (page.size() == pageSize);
+            completed = true;
+        } finally {
+            releaseLease(completed);
+            sample.stop(meterRegistry.timer("payment.reconcile.sweep", "completed", String.valueOf(completed)));
+        }
+
+        if (reconciled > 0) {
+            double seconds = Math.max((System.nanoTime() - started) / 1e9, 1e-3);
+            log.info("Reconciled {} stale payments in {} ms ({} per second)", reconciled,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), Math.round(reconciled / seconds));
+        }
+    }
+
+    private List<Payment> nextPage(LocalDateTime staleBefore, LocalDateTime lastCreatedAt, String lastId) {
+        Criteria criteria = Criteria.where("status").is("created").and("createdAt").lt(staleBefore);
+        if (Objects.nonNull(lastCreatedAt)) {
+            criteria.orOperator(
+                    Criteria.where("createdAt").gt(lastCreatedAt),
+                    Criteria.where("createdAt").is(lastCreatedAt).and("_id").gt(lastId));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("_id")))
+                .limit(pageSize);
+        query.fields().include("razorpayOrderId", "planType", "status", "createdAt");
+        return mongoTemplate.find(query, Payment.class);
+    }
+
+    private void reconcile(List<Payment> page, LocalDateTime now) {
+        // Ask the gateway about the whole page, at most `parallelism` calls in flight
+        Semaphore permits = new Semaphore(parallelism);
+        List<CompletableFuture<Lookup>> lookups = new ArrayList<>(page.size());
+        for (Payment payment : page) {
+            permits.acquireUninterruptibly();
+            lookups.add(CompletableFuture
+                    .supplyAsync(() -> lookup(payment), blockingCallExecutor.ioExecutor())
+                    .whenComplete((lookup, error) -> permits.release()));
+        }
+
+        BulkOperations changes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class);
+        int changeCount = 0;
+        for (CompletableFuture<Lookup> future : lookups) {
+            Lookup lookup = future.join();
+            Payment payment = lookup.payment();
+            GatewayOrder order = lookup.order();
+            if (Objects.isNull(order)) {
+                count("error");
+                continue;
+            }
+
+            if ("paid".equals(order.status())) {
+                // Goes through the same conditional transition as verify and the webhook, so the user is upgraded once
+                count(paymentService.completePayment(payment.getRazorpayOrderId(), null, null) ? "paid" : "noop");
+            } else if (payment.getCreatedAt().isBefore(now.minus(expireAfter))) {
+                changes.updateOne(
+                        new Query(Criteria.where("_id").is(payment.getUserId())
+                                .and("razorpayOrderId").is(payment.getRazorpayOrderId())
+                                .and("status").is("created")),
+                        new Update().set("status", "failed").set("updatedAt", now));
+                changeCount++;
+                count("expired");
+            } else {
+                count("pending");
+            }
+        }
+
+        if (changeCount > 0) {
+            BulkWriteResult result = changes.execute();
+            log.debug("Reconciled {} payments, {} updated", page.size(), result.getModifiedCount());
+        }
+    }
+
+    private Lookup lookup(Payment payment) {
+        try {
+            return new Lookup(payment, paymentGateway.fetchOrder(payment.getRazorpayOrderId()));
+        } catch (Exception e) {
+            // Left as is, the next sweep tries again
+            log.warn("Could not fetch order {} from the gateway: {}", payment.getRazorpayOrderId(), e.getMessage());
+            return new Lookup(payment, null);
+        }
+    }
+
+    private ReconciliationCheckpoint acquireLease() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(Criteria.where("_id").is(CHECKPOINT_ID).orOperator(
+                Criteria.where("lockedUntil").exists(false),
+                Criteria.where("lockedUntil").lt(now)));
+        Update update = new Update().set("owner", owner).set("lockedUntil", now.plus(lease));
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), ReconciliationCheckpoint.class);
+        } catch (DuplicateKeyException e) {
+            // The checkpoint exists and another instance holds the lease
+            return null;
+        }
+    }
+
+    private boolean saveCheckpoint(LocalDateTime lastCreatedAt, String lastId) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(Criteria.where("_id").is(CHECKPOINT_ID).and("owner").is(owner));
+        Update update = new Update()
+                .set("lastCreatedAt", lastCreatedAt)
+                .set("lastId", lastId)
+                .set("lockedUntil", now.plus(lease))
+                .set("updatedAt", now);
+        return mongoTemplate.updateFirst(query, update, ReconciliationCheckpoint.class).getMatchedCount() > 0;
+    }
+
+    private void releaseLease(boolean completed) {
+        Update update = new Update().unset("lockedUntil").set("updatedAt", LocalDateTime.now());
+        if (completed) {
+            // Start from the oldest stale order again next time
+            update.unset("lastCreatedAt").unset("lastId");
+        }
+        try {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(CHECKPOINT_ID).and("owner").is(owner)),
+                    update, ReconciliationCheckpoint.class);
+        } catch (Exception e) {
+            log.warn("Could not release the payment reconciliation lease: {}", e.getMessage());
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("payment.reconcile.orders", "outcome", outcome).increment();
+    }
+}
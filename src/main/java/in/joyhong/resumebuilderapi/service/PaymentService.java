@@ -1,23 +1,26 @@
 package in.joyhong.resumebuilderapi.service;
 
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
-import com.razorpay.Utils;
 import in.joyhong.resumebuilderapi.document.Payment;
 import in.joyhong.resumebuilderapi.document.User;
 import in.joyhong.resumebuilderapi.dto.AuthResponse;
+import in.joyhong.resumebuilderapi.payment.GatewayOrder;
+import in.joyhong.resumebuilderapi.payment.PaymentGateway;
 import in.joyhong.resumebuilderapi.repository.PaymentRepository;
-import in.joyhong.resumebuilderapi.repository.UserRepository;
+import in.joyhong.resumebuilderapi.security.UserPrincipalCache;
+import in.joyhong.resumebuilderapi.util.MongoTransactions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static in.joyhong.resumebuilderapi.util.AppConstants.PREMIUM;
 
@@ -28,37 +31,27 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final AuthService authService;
-    private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final PaymentGateway paymentGateway;
+    private final MongoTemplate mongoTemplate;
+    private final MongoTransactions mongoTransactions;
 
-    @Value("${razorpay.key.id}")
-    private String razorpayKeyId;
-    @Value("${razorpay.key.secret}")
-    private String razorpayKeySecret;
-
-    public Payment createOrder(Object principal, String planType) throws RazorpayException {
+    public Payment createOrder(Object principal, String planType) {
 
         AuthResponse authResponse = authService.getProfile(principal);
 
-        // Initialize the razorpay client
-        RazorpayClient razorpayClient = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
-
-        // Prepare the JSON object to pass the razorpay
+        // Prepare the order details
         int amount = 1000; // Amount in paise
         String currency = "USD";
         String receipt = PREMIUM + "_" + UUID.randomUUID().toString().substring(0, 8);
 
-        JSONObject orderRequest = new JSONObject();
-        orderRequest.put("amount", amount);
-        orderRequest.put("currency", currency);
-        orderRequest.put("receipt", receipt);
-
-        // Call the razorpay API to create order
-        Order razorpayOrder = razorpayClient.orders.create(orderRequest);
+        // Call the payment gateway to create order
+        GatewayOrder gatewayOrder = paymentGateway.createOrder(amount, currency, receipt);
 
         // Save the order details into database
         Payment newPayment = Payment.builder()
                 .userId(authResponse.getId())
-                .razorpayOrderId(razorpayOrder.get("id"))
+                .razorpayOrderId(gatewayOrder.id())
                 .amount(amount)
                 .currency(currency)
                 .planType(planType)
@@ -69,29 +62,17 @@ public class PaymentService {
         return paymentRepository.save(newPayment);
     }
 
-    public boolean verifyPayment(String razorpayOrderId, String razorpayPaymentId, String razorpaySignature) throws RazorpayException {
+    public boolean verifyPayment(String razorpayOrderId, String razorpayPaymentId, String razorpaySignature) {
         try {
-            JSONObject attributes = new JSONObject();
-            attributes.put("razorpay_order_id", razorpayOrderId);
-            attributes.put("razorpay_payment_id", razorpayPaymentId);
-            attributes.put("razorpay_signature", razorpaySignature);
-
-            boolean isValidSignature = Utils.verifyPaymentSignature(attributes, razorpayKeySecret);
+            boolean isValidSignature = paymentGateway.verifyPaymentSignature(razorpayOrderId, razorpayPaymentId, razorpaySignature);
 
             if (isValidSignature) {
-                // Update payment status
-                Payment payment = paymentRepository.findByRazorpayOrderId(razorpayOrderId)
-                        .orElseThrow(() -> new RuntimeException("Payment not found."));
-
-                payment.setRazorpayPaymentId(razorpayPaymentId);
-                payment.setRazorpaySignature(razorpaySignature);
-                payment.setStatus("paid");
-
-                paymentRepository.save(payment);
-                
-                // Upgrade the user subscription
-                upgradeUserSubscription(payment.getUserId(), payment.getPlanType());
-                return true;
+                // Update payment status and upgrade the user; a webhook or an earlier verify may already have done it
+                if (completePayment(razorpayOrderId, razorpayPaymentId, razorpaySignature)) {
+                    return true;
+                }
+                return mongoTemplate.exists(new Query(Criteria.where("razorpayOrderId").is(razorpayOrderId)
+                        .and("status").is("paid")), Payment.class);
             }
             return false;
         } catch (Exception e) {
@@ -100,21 +81,80 @@ public class PaymentService {
         }
     }
 
-    private void upgradeUserSubscription(String userId, String planType) {
-        User existingUser = userRepository.findById(userId)
-                        .orElseThrow(() -> new UsernameNotFoundException("User not found."));
-        existingUser.setSubscriptionPlan(planType);
-        userRepository.save(existingUser);
+    /**
+     * Moves the order to paid and upgrades its owner, two conditional writes in
+     * one transaction where the deployment supports it. Only the first caller
+     * for an order (browser verify, webhook or reconciler, retries included)
+     * changes anything; every later one is a single non-matching query and
+     * gets false.
+     */
+    public boolean completePayment(String razorpayOrderId, String razorpayPaymentId, String razorpaySignature) {
+        Payment payment = mongoTransactions.execute(() -> markPaid(razorpayOrderId, razorpayPaymentId, razorpaySignature));
+        if (Objects.isNull(payment)) {
+            return false;
+        }
+
+        // After commit, so a rolled back attempt never refreshes the cached plan early
+        userPrincipalCache.invalidate(payment.getUserId());
+        log.info("User {} upgraded to {} plan", payment.getUserId(), payment.getPlanType());
+        return true;
+    }
+
+    private Payment markPaid(String razorpayOrderId, String razorpayPaymentId, String razorpaySignature) {
+        // Conditional update, the status check and the write are one operation
+        Query query = new Query(Criteria.where("razorpayOrderId").is(razorpayOrderId).and("status").ne("paid"));
+        query.fields().include("planType");
+        Update update = new Update()
+                .set("status", "paid")
+                .set("updatedAt", LocalDateTime.now());
+        // The reconciler only knows the order, keep whatever payment id is already stored
+        if (Objects.nonNull(razorpayPaymentId)) {
+            update.set("razorpayPaymentId", razorpayPaymentId);
+        }
+        if (Objects.nonNull(razorpaySignature)) {
+            update.set("razorpaySignature", razorpaySignature);
+        }
+        Payment payment = mongoTemplate.findAndModify(query, update, Payment.class);
+        if (Objects.isNull(payment)) {
+            return null;
+        }
+
+        // Upgrade the user subscription
+        upgradeUserSubscription(payment.getUserId(), payment.getPlanType());
+        return payment;
+    }
 
-        log.info("User {} upgraded to {} plan", userId, planType);
+    /**
+     * Records a failed attempt, unless the order has been paid in the meantime.
+     */
+    public boolean failPayment(String razorpayOrderId, String razorpayPaymentId) {
+        Query query = new Query(Criteria.where("razorpayOrderId").is(razorpayOrderId).and("status").is("created"));
+        Update update = new Update()
+                .set("status", "failed")
+                .set("razorpayPaymentId", razorpayPaymentId)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(query, update, Payment.class).getModifiedCount() > 0;
     }
 
-    public List<Payment> getUserPayments(Object principal) {
+    private void upgradeUserSubscription(String userId, String planType) {
+        // Single write, throwing here rolls the payment back when in a transaction
+        Query query = new Query(Criteria.where("_id").is(userId));
+        query.fields().include("_id");
+        Update update = new Update()
+                .set("subscriptionPlan", planType)
+                .set("updatedAt", LocalDateTime.now());
+        User existingUser = mongoTemplate.findAndModify(query, update, User.class);
+        if (Objects.isNull(existingUser)) {
+            throw new UsernameNotFoundException("User not found.");
+        }
+    }
+
+    public Stream<Payment> streamUserPayments(Object principal) {
         // Get current profile
         AuthResponse authResponse = authService.getProfile(principal);
 
-        // Call the repo finder method
-        return paymentRepository.findByUserIdOrderByCreatedAtDesc(authResponse.getId());
+        // Cursor-backed, the caller must close the stream
+        return paymentRepository.streamByUserIdOrderByCreatedAtDesc(authResponse.getId());
     }
 
     public Payment getPaymentDetails(String orderId) {
@@ -0,0 +1,145 @@
+package in.joyhong.resumebuilderapi.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import in.joyhong.resumebuilderapi.document.PaymentWebhookEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static in.joyhong.resumebuilderapi.document.PaymentWebhookEvent.*;
+
+/**
+ * Applies stored webhook events in batches. Claims work like the email
+ * dispatcher (atomic, lease based); the payment transitions themselves are
+ * conditional, so an event that is applied twice, or races the browser's own
+ * verify call, upgrades the user only once. Outcomes of a batch are written
+ * back in one bulk write.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentWebhookProcessor {
+
+    private final MongoTemplate mongoTemplate;
+    private final PaymentService paymentService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.payment.webhook.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.payment.webhook.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.payment.webhook.initial-backoff:10s}")
+    private Duration initialBackoff;
+
+    @Value("${app.payment.webhook.lease:2m}")
+    private Duration lease;
+
+    @Scheduled(fixedDelayString = "${app.payment.webhook.poll-interval:2000}")
+    public void process() {
+        List<PaymentWebhookEvent> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                apply(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private List<PaymentWebhookEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Due events, plus events whose previous claim was abandoned
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(STATUS_PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(STATUS_PROCESSING).and("lockedUntil").lt(now)))
+                .with(Sort.by("nextAttemptAt"));
+        Update update = new Update()
+                .set("status", STATUS_PROCESSING)
+                .set("lockedUntil", now.plus(lease))
+                .inc("attempts", 1);
+        FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
+
+        List<PaymentWebhookEvent> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize) {
+            PaymentWebhookEvent claimed = mongoTemplate.findAndModify(query, update, options, PaymentWebhookEvent.class);
+            if (claimed == null) {
+                break;
+            }
+            batch.add(claimed);
+        }
+        return batch;
+    }
+
+    private void apply(List<PaymentWebhookEvent> batch) {
+        BulkOperations outcomes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PaymentWebhookEvent.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (PaymentWebhookEvent event : batch) {
+            Query byId = new Query(Criteria.where("_id").is(event.getId()));
+            try {
+                String result = handle(event);
+                outcomes.updateOne(byId, new Update()
+                        .set("status", STATUS_PROCESSED)
+                        .set("processedAt", now)
+                        .unset("lockedUntil")
+                        .unset("lastError"));
+                count(result);
+            } catch (Exception e) {
+                Update update = new Update().set("lastError", e.getMessage()).unset("lockedUntil");
+                if (event.getAttempts() >= maxAttempts) {
+                    update.set("status", STATUS_FAILED);
+                    count("failed");
+                    log.error("Giving up on payment webhook {} ({}) after {} attempts: {}", event.getId(),
+                            event.getEvent(), event.getAttempts(), e.getMessage());
+                } else {
+                    update.set("status", STATUS_PENDING).set("nextAttemptAt", now.plus(backoff(event.getAttempts())));
+                    count("retry");
+                    log.warn("Payment webhook {} ({}) failed, will retry: {}", event.getId(), event.getEvent(), e.getMessage());
+                }
+                outcomes.updateOne(byId, update);
+            }
+        }
+
+        BulkWriteResult result = outcomes.execute();
+        log.debug("Applied {} payment webhook events, {} updated", batch.size(), result.getModifiedCount());
+    }
+
+    private String handle(PaymentWebhookEvent event) {
+        if (Objects.isNull(event.getOrderId())) {
+            return "ignored";
+        }
+        return switch (event.getEvent()) {
+            case "payment.captured", "order.paid" ->
+                    paymentService.completePayment(event.getOrderId(), event.getPaymentId(), null) ? "paid" : "noop";
+            case "payment.failed" ->
+                    paymentService.failPayment(event.getOrderId(), event.getPaymentId()) ? "failed_payment" : "noop";
+            default -> "ignored";
+        };
+    }
+
+    private Duration backoff(int attempts) {
+        return initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 16));
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("payment.webhook.processed", "result", result).increment();
+    }
+}
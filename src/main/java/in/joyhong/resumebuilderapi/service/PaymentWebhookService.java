@@ -0,0 +1,105 @@
+package in.joyhong.resumebuilderapi.service;
+
+import in.joyhong.resumebuilderapi.document.PaymentWebhookEvent;
+import in.joyhong.resumebuilderapi.payment.PaymentGateway;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * Accepts gateway webhooks: checks the signature and stores the event under
+ * its event id, nothing more, so the gateway gets its answer quickly.
+ * {@link PaymentWebhookProcessor} applies the events in the background.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentWebhookService {
+
+    public enum Receipt { ACCEPTED, DUPLICATE, REJECTED }
+
+    private final PaymentGateway paymentGateway;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public Receipt receive(String payload, String signature, String eventId) {
+        if (Objects.isNull(signature) || !paymentGateway.verifyWebhookSignature(payload, signature)) {
+            count("rejected");
+            log.warn("Rejected payment webhook with an invalid signature");
+            return Receipt.REJECTED;
+        }
+
+        PaymentWebhookEvent event;
+        try {
+            event = parse(payload, eventId);
+        } catch (JSONException e) {
+            count("rejected");
+            log.warn("Rejected malformed payment webhook: {}", e.getMessage());
+            return Receipt.REJECTED;
+        }
+
+        // The event id is the _id, so a redelivery fails on insert instead of being stored twice
+        try {
+            mongoTemplate.insert(event);
+        } catch (DuplicateKeyException e) {
+            count("duplicate");
+            log.debug("Payment webhook {} already received", event.getId());
+            return Receipt.DUPLICATE;
+        }
+        count("accepted");
+        return Receipt.ACCEPTED;
+    }
+
+    private static PaymentWebhookEvent parse(String payload, String eventId) {
+        JSONObject root = new JSONObject(payload);
+        JSONObject entities = root.optJSONObject("payload");
+        JSONObject payment = entity(entities, "payment");
+        JSONObject order = entity(entities, "order");
+
+        String orderId = Objects.nonNull(payment) ? payment.optString("order_id", null) : null;
+        if (Objects.isNull(orderId) && Objects.nonNull(order)) {
+            orderId = order.optString("id", null);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return PaymentWebhookEvent.builder()
+                .id(Objects.nonNull(eventId) && !eventId.isBlank() ? eventId : sha256(payload))
+                .event(root.getString("event"))
+                .orderId(orderId)
+                .paymentId(Objects.nonNull(payment) ? payment.optString("id", null) : null)
+                .nextAttemptAt(now)
+                .receivedAt(now)
+                .build();
+    }
+
+    // payload.<name>.entity
+    private static JSONObject entity(JSONObject entities, String name) {
+        JSONObject wrapper = Objects.nonNull(entities) ? entities.optJSONObject(name) : null;
+        return Objects.nonNull(wrapper) ? wrapper.optJSONObject("entity") : null;
+    }
+
+    private static String sha256(String payload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("payment.webhook.received", "result", result).increment();
+    }
+}
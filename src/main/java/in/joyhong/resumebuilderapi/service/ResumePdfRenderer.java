@@ -0,0 +1,447 @@
+package in.joyhong.resumebuilderapi.service;
+
+import in.joyhong.resumebuilderapi.document.Resume;
+import in.joyhong.resumebuilderapi.template.TemplateCatalog;
+import in.joyhong.resumebuilderapi.template.TemplateDescriptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.font.encoding.GlyphList;
+import org.apache.pdfbox.pdmodel.font.encoding.WinAnsiEncoding;
+import org.springframework.stereotype.Service;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Renders a {@link Resume} to PDF for the templates in the
+ * {@link TemplateCatalog}. Layouts are created once and shared by every
+ * render; the document and its fonts are allocated per call.
+ */
+@Service
+@Slf4j
+public class ResumePdfRenderer {
+
+    private static final float MARGIN = 40f;
+    private static final float SIDEBAR_WIDTH = 180f;
+    private static final float LINE_SPACING = 1.35f;
+
+    private final Map<String, Layout> layouts;
+
+    private final MeterRegistry meterRegistry;
+
+    public ResumePdfRenderer(TemplateCatalog templateCatalog, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        // The catalog's first palette color is the accent unless the resume picks its own
+        Map<String, Layout> byId = new HashMap<>();
+        for (TemplateDescriptor template : templateCatalog.templates()) {
+            byId.put(template.id(), new Layout(
+                    HeaderStyle.valueOf(template.layout().header().toUpperCase(Locale.ROOT)),
+                    template.layout().sidebar(),
+                    Color.decode(template.palettes().get(0).get(0))));
+        }
+        this.layouts = Map.copyOf(byId);
+    }
+
+    private enum HeaderStyle { PLAIN, BAND }
+
+    private record Layout(HeaderStyle headerStyle, boolean sidebar, Color defaultAccent) {
+    }
+
+    // PDFont caches encodings and widths in plain HashMaps, so fonts are never shared between renders
+    private record Fonts(PDFont regular, PDFont bold, PDFont italic) {
+        private static Fonts helvetica() {
+            return new Fonts(new PDType1Font(Standard14Fonts.FontName.HELVETICA),
+                    new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD),
+                    new PDType1Font(Standard14Fonts.FontName.HELVETICA_OBLIQUE));
+        }
+    }
+
+    public byte[] render(Resume resume, String templateId) {
+        Layout layout = layouts.get(templateId);
+        if (layout == null) {
+            throw new IllegalArgumentException("Unknown template: " + templateId);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try (PDDocument document = new PDDocument()) {
+            Fonts fonts = Fonts.helvetica();
+            Color accent = accentColor(resume, layout);
+            PageSet pages = new PageSet(document, layout, accent);
+
+            float contentTop = drawHeader(pages, fonts, resume, layout, accent);
+            if (layout.sidebar()) {
+                Flow sidebar = new Flow(pages, MARGIN / 2, SIDEBAR_WIDTH - MARGIN, contentTop);
+                writeSidebar(sidebar, fonts, resume);
+                Flow main = new Flow(pages, SIDEBAR_WIDTH + MARGIN / 2, PDRectangle.A4.getWidth() - SIDEBAR_WIDTH - MARGIN, contentTop);
+                writeMain(main, fonts, resume, accent);
+            } else {
+                Flow main = new Flow(pages, MARGIN, PDRectangle.A4.getWidth() - 2 * MARGIN, contentTop);
+                writeContact(main, fonts, resume);
+                writeMain(main, fonts, resume, accent);
+                writeSkillsAndExtras(main, fonts, resume, accent);
+            }
+
+            pages.close();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+            document.save(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render resume " + resume.getId(), e);
+        } finally {
+            sample.stop(Timer.builder("resume.pdf.render")
+                    .tag("template", templateId)
+                    .description("Time to render a resume to PDF")
+                    .register(meterRegistry));
+        }
+    }
+
+    private float drawHeader(PageSet pages, Fonts fonts, Resume resume, Layout layout, Color accent) throws IOException {
+        Resume.ProfileInfo profile = Objects.requireNonNullElseGet(resume.getProfileInfo(), Resume.ProfileInfo::new);
+        String name = firstNonBlank(profile.getFullName(), resume.getTitle(), "Resume");
+        String designation = Objects.requireNonNullElse(profile.getDesignation(), "");
+
+        PDPageContentStream stream = pages.stream(0);
+        float pageHeight = PDRectangle.A4.getHeight();
+        float x = layout.sidebar() ? SIDEBAR_WIDTH + MARGIN / 2 : MARGIN;
+
+        if (layout.headerStyle() == HeaderStyle.BAND) {
+            stream.setNonStrokingColor(accent);
+            stream.addRect(0, pageHeight - 110, PDRectangle.A4.getWidth(), 110);
+            stream.fill();
+            drawText(stream, fonts.bold(), 24, Color.WHITE, name, x, pageHeight - 55);
+            drawText(stream, fonts.regular(), 12, Color.WHITE, designation, x, pageHeight - 78);
+            return pageHeight - 110 - MARGIN / 2;
+        }
+
+        drawText(stream, fonts.bold(), 24, accent, name, x, pageHeight - MARGIN - 20);
+        drawText(stream, fonts.regular(), 12, Color.DARK_GRAY, designation, x, pageHeight - MARGIN - 40);
+        stream.setStrokingColor(accent);
+        stream.setLineWidth(1.5f);
+        stream.moveTo(x, pageHeight - MARGIN - 52);
+        stream.lineTo(PDRectangle.A4.getWidth() - MARGIN, pageHeight - MARGIN - 52);
+        stream.stroke();
+        return pageHeight - MARGIN - 70;
+    }
+
+    private void writeContact(Flow flow, Fonts fonts, Resume resume) throws IOException {
+        Resume.ContactInfo contact = resume.getContactInfo();
+        if (contact == null) {
+            return;
+        }
+        String line = joinNonBlank("  |  ", contact.getEmail(), contact.getPhone(), contact.getLocation(),
+                contact.getLinkedIn(), contact.getGithub(), contact.getWebsite());
+        if (!line.isEmpty()) {
+            flow.paragraph(fonts.regular(), 9, Color.DARK_GRAY, line);
+            flow.gap(8);
+        }
+    }
+
+    private void writeSidebar(Flow flow, Fonts fonts, Resume resume) throws IOException {
+        Resume.ContactInfo contact = resume.getContactInfo();
+        if (contact != null) {
+            flow.heading(fonts.bold(), 11, Color.WHITE, "CONTACT");
+            for (String value : new String[]{contact.getEmail(), contact.getPhone(), contact.getLocation(),
+                    contact.getLinkedIn(), contact.getGithub(), contact.getWebsite()}) {
+                if (!isBlank(value)) {
+                    flow.paragraph(fonts.regular(), 9, Color.WHITE, value);
+                }
+            }
+            flow.gap(10);
+        }
+        if (!isEmpty(resume.getSkills())) {
+            flow.heading(fonts.bold(), 11, Color.WHITE, "SKILLS");
+            for (Resume.Skill skill : resume.getSkills()) {
+                flow.paragraph(fonts.regular(), 9, Color.WHITE, withProgress(skill.getName(), skill.getProgress()));
+            }
+            flow.gap(10);
+        }
+        if (!isEmpty(resume.getLanguages())) {
+            flow.heading(fonts.bold(), 11, Color.WHITE, "LANGUAGES");
+            for (Resume.Language language : resume.getLanguages()) {
+                flow.paragraph(fonts.regular(), 9, Color.WHITE, withProgress(language.getName(), language.getProgress()));
+            }
+            flow.gap(10);
+        }
+        if (!isEmpty(resume.getInterests())) {
+            flow.heading(fonts.bold(), 11, Color.WHITE, "INTERESTS");
+            flow.paragraph(fonts.regular(), 9, Color.WHITE, String.join(", ", resume.getInterests()));
+        }
+    }
+
+    private void writeMain(Flow flow, Fonts fonts, Resume resume, Color accent) throws IOException {
+        Resume.ProfileInfo profile = resume.getProfileInfo();
+        if (profile != null && !isBlank(profile.getSummary())) {
+            flow.heading(fonts.bold(), 12, accent, "PROFILE");
+            flow.paragraph(fonts.regular(), 10, Color.BLACK, profile.getSummary());
+            flow.gap(10);
+        }
+        if (!isEmpty(resume.getWorkExperience())) {
+            flow.heading(fonts.bold(), 12, accent, "WORK EXPERIENCE");
+            for (Resume.WorkExperience work : resume.getWorkExperience()) {
+                flow.paragraph(fonts.bold(), 10, Color.BLACK, joinNonBlank(" - ", work.getRole(), work.getCompany()));
+                flow.paragraph(fonts.italic(), 9, Color.GRAY, joinNonBlank(" - ", work.getStartDate(), work.getEndDate()));
+                flow.paragraph(fonts.regular(), 10, Color.BLACK, work.getDescription());
+                flow.gap(6);
+            }
+            flow.gap(4);
+        }
+        if (!isEmpty(resume.getEducation())) {
+            flow.heading(fonts.bold(), 12, accent, "EDUCATION");
+            for (Resume.Education education : resume.getEducation()) {
+                flow.paragraph(fonts.bold(), 10, Color.BLACK, joinNonBlank(" - ", education.getDegree(), education.getInstitution()));
+                flow.paragraph(fonts.italic(), 9, Color.GRAY, joinNonBlank(" - ", education.getStartDate(), education.getEndDate()));
+                flow.gap(6);
+            }
+            flow.gap(4);
+        }
+        if (!isEmpty(resume.getProjects())) {
+            flow.heading(fonts.bold(), 12, accent, "PROJECTS");
+            for (Resume.Project project : resume.getProjects()) {
+                flow.paragraph(fonts.bold(), 10, Color.BLACK, project.getTitle());
+                flow.paragraph(fonts.regular(), 10, Color.BLACK, project.getDescription());
+                flow.paragraph(fonts.italic(), 9, Color.GRAY, joinNonBlank("  |  ", project.getGithub(), project.getLiveDemo()));
+                flow.gap(6);
+            }
+            flow.gap(4);
+        }
+        if (!isEmpty(resume.getCertifications())) {
+            flow.heading(fonts.bold(), 12, accent, "CERTIFICATIONS");
+            for (Resume.Certification certification : resume.getCertifications()) {
+                flow.paragraph(fonts.regular(), 10, Color.BLACK,
+                        joinNonBlank(" - ", certification.getTitle(), certification.getIssuer(), certification.getYear()));
+            }
+            flow.gap(10);
+        }
+    }
+
+    private void writeSkillsAndExtras(Flow flow, Fonts fonts, Resume resume, Color accent) throws IOException {
+        if (!isEmpty(resume.getSkills())) {
+            flow.heading(fonts.bold(), 12, accent, "SKILLS");
+            List<String> skills = new ArrayList<>();
+            resume.getSkills().forEach(skill -> skills.add(withProgress(skill.getName(), skill.getProgress())));
+            flow.paragraph(fonts.regular(), 10, Color.BLACK, String.join(", ", skills));
+            flow.gap(10);
+        }
+        if (!isEmpty(resume.getLanguages())) {
+            flow.heading(fonts.bold(), 12, accent, "LANGUAGES");
+            List<String> languages = new ArrayList<>();
+            resume.getLanguages().forEach(language -> languages.add(withProgress(language.getName(), language.getProgress())));
+            flow.paragraph(fonts.regular(), 10, Color.BLACK, String.join(", ", languages));
+            flow.gap(10);
+        }
+        if (!isEmpty(resume.getInterests())) {
+            flow.heading(fonts.bold(), 12, accent, "INTERESTS");
+            flow.paragraph(fonts.regular(), 10, Color.BLACK, String.join(", ", resume.getInterests()));
+        }
+    }
+
+    private static Color accentColor(Resume resume, Layout layout) {
+        Resume.Template template = resume.getTemplate();
+        if (template != null && !isEmpty(template.getColorPalette())) {
+            try {
+                return Color.decode(template.getColorPalette().get(0));
+            } catch (NumberFormatException e) {
+                // Not a hex color, keep the template default
+            }
+        }
+        return layout.defaultAccent();
+    }
+
+    private void drawText(PDPageContentStream stream, PDFont font, float size, Color color, String text, float x, float y) throws IOException {
+        if (isBlank(text)) {
+            return;
+        }
+        stream.beginText();
+        stream.setFont(font, size);
+        stream.setNonStrokingColor(color);
+        stream.newLineAtOffset(x, y);
+        stream.showText(sanitize(text));
+        stream.endText();
+    }
+
+    // Standard 14 fonts only cover WinAnsi; replace anything else
+    private static String sanitize(String text) {
+        StringBuilder sanitized = new StringBuilder(text.length());
+        GlyphList glyphs = GlyphList.getAdobeGlyphList();
+        text.codePoints().forEach(codePoint -> {
+            if (Character.isWhitespace(codePoint)) {
+                sanitized.append(' ');
+            } else if (WinAnsiEncoding.INSTANCE.contains(glyphs.codePointToName(codePoint))) {
+                sanitized.appendCodePoint(codePoint);
+            } else {
+                sanitized.append('?');
+            }
+        });
+        return sanitized.toString();
+    }
+
+    private static String withProgress(String name, Integer progress) {
+        String label = Objects.requireNonNullElse(name, "");
+        return progress != null ? label + " (" + progress + "%)" : label;
+    }
+
+    private static String joinNonBlank(String separator, String... values) {
+        List<String> parts = new ArrayList<>();
+        for (String value : values) {
+            if (!isBlank(value)) {
+                parts.add(value);
+            }
+        }
+        return String.join(separator, parts);
+    }
+
+    private static String firstNonBlank(String... values) {
+        for (String value : values) {
+            if (!isBlank(value)) {
+                return value;
+            }
+        }
+        return "";
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static boolean isEmpty(List<?> values) {
+        return values == null || values.isEmpty();
+    }
+
+    /**
+     * Pages of one document, each with its own content stream, so the sidebar
+     * and main column can flow onto new pages independently.
+     */
+    private static final class PageSet {
+        private final PDDocument document;
+        private final Layout layout;
+        private final Color accent;
+        private final List<PDPageContentStream> streams = new ArrayList<>();
+
+        private PageSet(PDDocument document, Layout layout, Color accent) {
+            this.document = document;
+            this.layout = layout;
+            this.accent = accent;
+        }
+
+        private PDPageContentStream stream(int index) throws IOException {
+            while (streams.size() <= index) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                PDPageContentStream stream = new PDPageContentStream(document, page);
+                if (layout.sidebar()) {
+                    // Background first so text is drawn on top of it
+                    stream.setNonStrokingColor(accent);
+                    stream.addRect(0, 0, SIDEBAR_WIDTH, PDRectangle.A4.getHeight());
+                    stream.fill();
+                }
+                streams.add(stream);
+            }
+            return streams.get(index);
+        }
+
+        private void close() throws IOException {
+            for (PDPageContentStream stream : streams) {
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * A column of wrapped text that continues on the next page when full.
+     */
+    private final class Flow {
+        private final PageSet pages;
+        private final float x;
+        private final float width;
+        private int page;
+        private float y;
+
+        private Flow(PageSet pages, float x, float width, float top) {
+            this.pages = pages;
+            this.x = x;
+            this.width = width;
+            this.y = top;
+        }
+
+        private void heading(PDFont font, float size, Color color, String text) throws IOException {
+            // Keep a heading together with at least a couple of lines below it
+            ensureSpace(size * LINE_SPACING * 3);
+            paragraph(font, size, color, text);
+            gap(2);
+        }
+
+        private void paragraph(PDFont font, float size, Color color, String text) throws IOException {
+            if (isBlank(text)) {
+                return;
+            }
+            float lineHeight = size * LINE_SPACING;
+            for (String line : wrap(font, size, sanitize(text))) {
+                ensureSpace(lineHeight);
+                y -= lineHeight;
+                PDPageContentStream stream = pages.stream(page);
+                stream.beginText();
+                stream.setFont(font, size);
+                stream.setNonStrokingColor(color);
+                stream.newLineAtOffset(x, y);
+                stream.showText(line);
+                stream.endText();
+            }
+        }
+
+        private void gap(float height) {
+            y -= height;
+        }
+
+        private void ensureSpace(float height) throws IOException {
+            if (y - height < MARGIN) {
+                page++;
+                pages.stream(page);
+                y = PDRectangle.A4.getHeight() - MARGIN;
+            }
+        }
+
+        private List<String> wrap(PDFont font, float size, String text) throws IOException {
+            List<String> lines = new ArrayList<>();
+            StringBuilder line = new StringBuilder();
+            for (String word : text.split(" ")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                String candidate = line.isEmpty() ? word : line + " " + word;
+                if (textWidth(font, size, candidate) <= width || line.isEmpty()) {
+                    line.setLength(0);
+                    line.append(candidate);
+                } else {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                    line.append(word);
+                }
+            }
+            if (!line.isEmpty()) {
+                lines.add(line.toString());
+            }
+            return lines;
+        }
+
+        private float textWidth(PDFont font, float size, String text) throws IOException {
+            return font.getStringWidth(text) / 1000f * size;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package in.joyhong.resumebuilderapi.service;
+
+import in.joyhong.resumebuilderapi.document.Resume;
+import in.joyhong.resumebuilderapi.template.TemplateCatalog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Serves rendered resume PDFs from a bounded LRU cache keyed by resume id,
+ * {@code updatedAt} and template, so an unchanged resume is rendered only once.
+ */
+@Service
+@Slf4j
+public class ResumePdfService {
+
+    private final ResumeService resumeService;
+    private final TemplatesService templatesService;
+    private final ResumePdfRenderer resumePdfRenderer;
+    private final TemplateCatalog templateCatalog;
+    private final MeterRegistry meterRegistry;
+    private final Counter hits;
+    private final Counter misses;
+
+    // Access-ordered, guarded by "this"
+    private final LinkedHashMap<PdfCacheKey, byte[]> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    @Value("${app.pdf.cache.max-bytes:67108864}")
+    private long maxCachedBytes;
+
+    public ResumePdfService(ResumeService resumeService,
+                            TemplatesService templatesService,
+                            ResumePdfRenderer resumePdfRenderer,
+                            TemplateCatalog templateCatalog,
+                            MeterRegistry meterRegistry) {
+        this.resumeService = resumeService;
+        this.templatesService = templatesService;
+        this.resumePdfRenderer = resumePdfRenderer;
+        this.templateCatalog = templateCatalog;
+        this.meterRegistry = meterRegistry;
+        this.hits = Counter.builder("resume.pdf.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("resume.pdf.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    // The gauge holds a reference to this service, so it is registered once construction is done
+    @PostConstruct
+    public void registerCacheGauge() {
+        Gauge.builder("resume.pdf.cache.bytes", this, ResumePdfService::getCachedBytes).register(meterRegistry);
+    }
+
+    private record PdfCacheKey(String resumeId, LocalDateTime updatedAt, String templateId) {
+    }
+
+    public record RenderedPdf(String filename, byte[] content) {
+    }
+
+    public RenderedPdf renderResume(String resumeId, String templateId, Object principal) {
+        // Read just enough to build the cache key
+        Resume stamp = resumeService.getResumeRenderStamp(resumeId, principal);
+        String template = resolveTemplate(templateId, stamp, principal);
+        String filename = toFilename(stamp.getTitle());
+
+        PdfCacheKey key = new PdfCacheKey(resumeId, stamp.getUpdatedAt(), template);
+        byte[] cached = get(key);
+        if (cached != null) {
+            hits.increment();
+            return new RenderedPdf(filename, cached);
+        }
+
+        // Cache miss, load the full resume and render it
+        misses.increment();
+        Resume resume = resumeService.getResumeById(resumeId, principal);
+        byte[] pdf = resumePdfRenderer.render(resume, template);
+        put(new PdfCacheKey(resumeId, resume.getUpdatedAt(), template), pdf);
+        return new RenderedPdf(filename, pdf);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String resolveTemplate(String templateId, Resume stamp, Object principal) {
+        String template = templateId;
+        if (Objects.isNull(template) || template.isBlank()) {
+            Resume.Template saved = stamp.getTemplate();
+            template = Objects.nonNull(saved) && templateCatalog.contains(saved.getTheme())
+                    ? saved.getTheme()
+                    : templateCatalog.defaultTemplateId();
+        }
+
+        // Premium templates are only rendered for premium users
+        List<String> available = (List<String>) templatesService.getTemplates(principal).get("availableTemplates");
+        if (!available.contains(template)) {
+            throw new IllegalArgumentException("Template " + template + " is not available for your plan.");
+        }
+        return template;
+    }
+
+    private static String toFilename(String title) {
+        String base = Objects.nonNull(title) ? title.replaceAll("[^A-Za-z0-9._-]+", "_") : "";
+        return (base.isBlank() ? "resume" : base) + ".pdf";
+    }
+
+    private synchronized byte[] get(PdfCacheKey key) {
+        return cache.get(key);
+    }
+
+    private synchronized void put(PdfCacheKey key, byte[] pdf) {
+        if (pdf.length > maxCachedBytes) {
+            return;
+        }
+        // Older renders of the same resume/template can never be hit again
+        Iterator<Map.Entry<PdfCacheKey, byte[]>> entries = cache.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<PdfCacheKey, byte[]> entry = entries.next();
+            if (entry.getKey().resumeId().equals(key.resumeId()) && entry.getKey().templateId().equals(key.templateId())) {
+                cachedBytes -= entry.getValue().length;
+                entries.remove();
+            }
+        }
+
+        byte[] previous = cache.put(key, pdf);
+        cachedBytes += pdf.length - (previous != null ? previous.length : 0);
+
+        // Evict least recently used entries until we fit again
+        entries = cache.entrySet().iterator();
+        while (cachedBytes > maxCachedBytes && entries.hasNext()) {
+            cachedBytes -= entries.next().getValue().length;
+            entries.remove();
+        }
+    }
+
+    private synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+}
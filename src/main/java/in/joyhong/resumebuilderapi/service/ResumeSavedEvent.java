@@ -0,0 +1,8 @@
+package in.joyhong.resumebuilderapi.service;
+
+/**
+ * Published after a resume's content has been written, so background work
+ * such as thumbnail rendering can pick up the change.
+ */
+public record ResumeSavedEvent(String resumeId) {
+}
@@ -3,16 +3,47 @@ package in.joyhong.resumebuilderapi.service;
 import in.joyhong.resumebuilderapi.document.Resume;
 import in.joyhong.resumebuilderapi.dto.AuthResponse;
 import in.joyhong.resumebuilderapi.dto.CreateResumeRequest;
+import in.joyhong.resumebuilderapi.dto.ResumePatchRequest;
+import in.joyhong.resumebuilderapi.dto.ResumeSummary;
+import in.joyhong.resumebuilderapi.dto.ResumeSummaryPage;
+import in.joyhong.resumebuilderapi.exception.PreconditionFailedException;
 import in.joyhong.resumebuilderapi.repository.ResumeRepository;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.util.ReflectionUtils;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.sql.Array;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +52,24 @@ public class ResumeService {
 
     private final ResumeRepository resumeRepository;
     private final AuthService authService;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    // Thumbnails are rendered by ThumbnailService, clients no longer supply them
+    @Value("${app.thumbnail.enabled:true}")
+    private boolean serverThumbnails;
+
+    private static final int MAX_SUMMARY_PAGE_SIZE = 100;
+
+    // Top-level fields a client may change through PATCH; thumbnailLink only without server thumbnails
+    private static final Set<String> PATCHABLE_FIELDS = Set.of(
+            "title", "template", "profileInfo", "contactInfo", "workExperience",
+            "education", "skills", "projects", "certifications", "languages", "interests");
+
+    // A path segment such as "workExperience" or "workExperience[2]"
+    private static final Pattern PATH_SEGMENT = Pattern.compile("([A-Za-z][A-Za-z0-9]*)((?:\\[\\d+])*)");
+    private static final Pattern INDEX = Pattern.compile("\\[(\\d+)]");
 
     public Resume createResume(CreateResumeRequest request, Object principalObject) {
         // Create resume object
@@ -32,12 +81,15 @@ public class ResumeService {
         // Update the resume object
         newResume.setUserId(response.getId());
         newResume.setTitle(request.getTitle());
+        newResume.setVersion(0L);
 
         // Set default data for resume
         setDefaultResumeData(newResume);
 
         // Save the resume data
-        return resumeRepository.save(newResume);
+        Resume savedResume = resumeRepository.save(newResume);
+        eventPublisher.publishEvent(new ResumeSavedEvent(savedResume.getId()));
+        return savedResume;
     }
 
     private void setDefaultResumeData(Resume newResume) {
@@ -52,15 +104,66 @@ public class ResumeService {
         newResume.setInterests(new ArrayList<>());
     }
 
-    public List<Resume> getUserResumes(Object principal) {
+    public Stream<Resume> streamUserResumes(Object principal) {
         // Get the current profile
         AuthResponse response = authService.getProfile(principal);
 
-        // Call the repository finder method
-        List<Resume> resumes = resumeRepository.findByUserIdOrderByUpdatedAtDesc(response.getId());
+        // Cursor-backed, the caller must close the stream
+        return resumeRepository.streamByUserIdOrderByUpdatedAtDesc(response.getId());
+    }
+
+    public ResumeSummaryPage getUserResumeSummaries(Object principal, String cursor, int limit) {
+        // Get the current profile
+        AuthResponse response = authService.getProfile(principal);
+
+        // Keyset pagination on (updatedAt, _id), newest first
+        Criteria criteria = Criteria.where("userId").is(response.getId());
+        if (cursor != null && !cursor.isBlank()) {
+            SummaryCursor after = decodeCursor(cursor);
+            criteria = criteria.orOperator(
+                    Criteria.where("updatedAt").lt(after.updatedAt()),
+                    Criteria.where("updatedAt").is(after.updatedAt()).and("_id").lt(after.id()));
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_SUMMARY_PAGE_SIZE));
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "updatedAt", "_id"))
+                .limit(pageSize + 1);
+        query.fields().include("title", "thumbnailLink", "template", "updatedAt");
+
+        // Only the projected fields are read from Mongo
+        List<ResumeSummary> items = mongoTemplate.find(query, ResumeSummary.class, "resumes");
+
+        // One extra row tells us whether there is a next page
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            ResumeSummary last = items.get(pageSize - 1);
+            nextCursor = encodeCursor(new SummaryCursor(last.getUpdatedAt(), last.getId()));
+        }
 
         // Return result
-        return resumes;
+        return ResumeSummaryPage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static String encodeCursor(SummaryCursor cursor) {
+        String raw = cursor.updatedAt() + "|" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static SummaryCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new SummaryCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    private record SummaryCursor(LocalDateTime updatedAt, String id) {
     }
 
     public Resume getResumeById(String resumeId, Object principal) {
@@ -75,7 +178,39 @@ public class ResumeService {
         return existingResume;
     }
 
-    public Resume updateResume(String resumeId, Resume updatedData, Object principal) {
+    public Resume getResumeVersions(String resumeId, Object principal) {
+        // Get the current profile
+        AuthResponse response = authService.getProfile(principal);
+
+        // Read only the content version and the thumbnail stamp
+        Query query = ownedResume(resumeId, response.getId());
+        query.fields().include("version", "thumbnailVersion");
+        Resume versions = mongoTemplate.findOne(query, Resume.class);
+        if (Objects.isNull(versions)) {
+            throw new RuntimeException("Resume not found.");
+        }
+
+        // Return result
+        return versions;
+    }
+
+    public Resume getResumeRenderStamp(String resumeId, Object principal) {
+        // Get the current profile
+        AuthResponse response = authService.getProfile(principal);
+
+        // Only what is needed to identify a rendered version
+        Query query = ownedResume(resumeId, response.getId());
+        query.fields().include("title", "template", "updatedAt");
+        Resume stamp = mongoTemplate.findOne(query, Resume.class);
+        if (Objects.isNull(stamp)) {
+            throw new RuntimeException("Resume not found.");
+        }
+
+        // Return result
+        return stamp;
+    }
+
+    public Resume updateResume(String resumeId, Resume updatedData, Object principal, Set<Long> expectedVersions) {
         // Get the current profile 
         AuthResponse response = authService.getProfile(principal);
 
@@ -83,9 +218,17 @@ public class ResumeService {
         Resume existingResume = resumeRepository.findByUserIdAndId(response.getId(), resumeId)
                 .orElseThrow(() -> new RuntimeException("Resume not found"));
 
+        // Fail fast when the client edited an older version
+        Long storedVersion = existingResume.getVersion();
+        if (Objects.nonNull(expectedVersions) && !expectedVersions.contains(versionOf(existingResume))) {
+            throw new PreconditionFailedException("Resume has been modified since it was loaded.");
+        }
+
         // Update new data
         existingResume.setTitle(updatedData.getTitle());
-        existingResume.setThumbnailLink(updatedData.getThumbnailLink());
+        if (!serverThumbnails) {
+            existingResume.setThumbnailLink(updatedData.getThumbnailLink());
+        }
         existingResume.setTemplate(updatedData.getTemplate());
         existingResume.setProfileInfo(updatedData.getProfileInfo());
         existingResume.setContactInfo(updatedData.getContactInfo());
@@ -96,14 +239,221 @@ public class ResumeService {
         existingResume.setCertifications(updatedData.getCertifications());
         existingResume.setLanguages(updatedData.getLanguages());
         existingResume.setInterests(updatedData.getInterests());
+        existingResume.setVersion(versionOf(existingResume) + 1);
 
-        // Update the details into database
-        resumeRepository.save(existingResume);
+        // Update the details into database, only if nobody wrote in between
+        Query query = ownedResume(resumeId, response.getId());
+        query.addCriteria(Criteria.where("version").is(storedVersion));
+        if (Objects.isNull(mongoTemplate.findAndReplace(query, existingResume))) {
+            throw new PreconditionFailedException("Resume has been modified since it was loaded.");
+        }
+        eventPublisher.publishEvent(new ResumeSavedEvent(resumeId));
 
         // Return result
         return existingResume;
     }
 
+    public Resume patchResume(String resumeId, ResumePatchRequest request, Object principal, Set<Long> expectedVersions) {
+        // Get the current profile
+        AuthResponse response = authService.getProfile(principal);
+
+        // Translate the operations into a single Mongo update
+        Update update = toUpdate(request.getOperations());
+        update.set("updatedAt", LocalDateTime.now());
+        update.inc("version", 1);
+
+        // Apply it in place, restricted to the caller's own resume (and versions, if given)
+        Query query = ownedResume(resumeId, response.getId());
+        if (Objects.nonNull(expectedVersions)) {
+            query.addCriteria(versionIn(expectedVersions));
+        }
+        // Every indexed element must exist at write time, Mongo would pad the array with nulls
+        Set<String> indexedElements = indexedElements(request.getOperations());
+        indexedElements.forEach(element -> query.addCriteria(Criteria.where(element).exists(true)));
+        query.fields().include("updatedAt", "version", "thumbnailVersion");
+        Resume patched = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Resume.class);
+
+        if (Objects.isNull(patched)) {
+            // Work out which condition failed
+            Query current = ownedResume(resumeId, response.getId());
+            current.fields().include("version");
+            Resume stored = mongoTemplate.findOne(current, Resume.class);
+            if (Objects.isNull(stored)) {
+                throw new RuntimeException("Resume not found.");
+            }
+            if (Objects.nonNull(expectedVersions) && !expectedVersions.contains(versionOf(stored))) {
+                throw new PreconditionFailedException("Resume has been modified since it was loaded.");
+            }
+            if (!indexedElements.isEmpty()) {
+                throw new IllegalArgumentException("Index out of range in " + String.join(", ", indexedElements) + ".");
+            }
+            throw new PreconditionFailedException("Resume has been modified since it was loaded.");
+        }
+        eventPublisher.publishEvent(new ResumeSavedEvent(resumeId));
+
+        // Return result
+        return patched;
+    }
+
+    private static Query ownedResume(String resumeId, String userId) {
+        return new Query(Criteria.where("_id").is(resumeId).and("userId").is(userId));
+    }
+
+    // Resumes created before versioning have no version field and count as 0
+    private static Criteria versionIn(Set<Long> versions) {
+        List<Long> accepted = new ArrayList<>(versions);
+        if (versions.contains(0L)) {
+            accepted.add(null);
+        }
+        return Criteria.where("version").in(accepted);
+    }
+
+    private static long versionOf(Resume resume) {
+        return Objects.nonNull(resume.getVersion()) ? resume.getVersion() : 0L;
+    }
+
+    private Update toUpdate(List<ResumePatchRequest.Operation> operations) {
+        Update update = new Update();
+        Map<String, List<Object>> pushes = new LinkedHashMap<>();
+        Map<String, List<Object>> pulls = new LinkedHashMap<>();
+        Map<String, String> touched = new LinkedHashMap<>();
+
+        for (ResumePatchRequest.Operation operation : operations) {
+            String path = toMongoPath(operation.getPath());
+            rejectOverlap(touched, operation.getOp().toLowerCase(), path, operation.getPath());
+            JavaType fieldType = fieldType(operation.getPath());
+            switch (operation.getOp().toLowerCase()) {
+                case "set" -> update.set(path, convert(operation, fieldType));
+                case "unset" -> update.unset(path);
+                case "push" -> pushes.computeIfAbsent(path, key -> new ArrayList<>()).add(convert(operation, elementType(operation, fieldType)));
+                case "pull" -> pulls.computeIfAbsent(path, key -> new ArrayList<>()).add(convert(operation, elementType(operation, fieldType)));
+                default -> throw new IllegalArgumentException("Unsupported operation: " + operation.getOp());
+            }
+        }
+
+        // Several appends/removals on the same array become one $push/$pull
+        pushes.forEach((path, values) -> update.push(path).each(values.toArray()));
+        pulls.forEach((path, values) -> {
+            // Always $pull, so an element is matched the same way however many values are sent
+            List<Object> conditions = values.stream()
+                    .map(value -> mongoTemplate.getConverter().convertToMongoType(value))
+                    .toList();
+            if (conditions.size() == 1) {
+                update.pull(path, conditions.get(0));
+            } else if (conditions.stream().allMatch(Document.class::isInstance)) {
+                update.pull(path, new Document("$or", conditions));
+            } else {
+                update.pull(path, new Document("$in", conditions));
+            }
+        });
+        return update;
+    }
+
+    // Mongo refuses an update that touches a path and its parent (or one path twice) with different
+    // operators; only repeated push or pull on the same array is merged into one operator
+    private static void rejectOverlap(Map<String, String> touched, String op, String path, String requestPath) {
+        for (Map.Entry<String, String> earlier : touched.entrySet()) {
+            String other = earlier.getKey();
+            boolean overlaps = other.equals(path) || other.startsWith(path + ".") || path.startsWith(other + ".");
+            boolean mergeable = other.equals(path) && earlier.getValue().equals(op) && (op.equals("push") || op.equals("pull"));
+            if (overlaps && !mergeable) {
+                throw new IllegalArgumentException("Conflicting operations on " + requestPath + ".");
+            }
+        }
+        touched.putIfAbsent(path, op);
+    }
+
+    // "workExperience[2].description" -> "workExperience.2", the deepest array element a path needs
+    private Set<String> indexedElements(List<ResumePatchRequest.Operation> operations) {
+        Set<String> elements = new LinkedHashSet<>();
+        for (ResumePatchRequest.Operation operation : operations) {
+            String[] segments = toMongoPath(operation.getPath()).split("\\.");
+            for (int i = segments.length - 1; i > 0; i--) {
+                if (segments[i].chars().allMatch(Character::isDigit)) {
+                    elements.add(String.join(".", Arrays.copyOf(segments, i + 1)));
+                    break;
+                }
+            }
+        }
+        return elements;
+    }
+
+    // Type of the Resume field a path points at, e.g. "skills[1].name" -> String
+    private JavaType fieldType(String path) {
+        JavaType type = objectMapper.constructType(Resume.class);
+        for (String part : path.split("\\.")) {
+            Matcher segment = PATH_SEGMENT.matcher(part);
+            if (!segment.matches()) {
+                throw new IllegalArgumentException("Invalid path: " + path);
+            }
+            Field field = ReflectionUtils.findField(type.getRawClass(), segment.group(1));
+            if (Objects.isNull(field) || Modifier.isStatic(field.getModifiers())) {
+                throw new IllegalArgumentException("Unknown field in path: " + path);
+            }
+            type = objectMapper.getTypeFactory().constructType(field.getGenericType());
+
+            Matcher index = INDEX.matcher(segment.group(2));
+            while (index.find()) {
+                if (!type.isCollectionLikeType()) {
+                    throw new IllegalArgumentException("Not a list: " + path);
+                }
+                type = type.getContentType();
+            }
+        }
+        return type;
+    }
+
+    private static JavaType elementType(ResumePatchRequest.Operation operation, JavaType fieldType) {
+        if (!fieldType.isCollectionLikeType()) {
+            throw new IllegalArgumentException(operation.getOp() + " needs a list: " + operation.getPath());
+        }
+        if (Objects.isNull(operation.getValue())) {
+            throw new IllegalArgumentException(operation.getOp() + " needs a value: " + operation.getPath());
+        }
+        return fieldType.getContentType();
+    }
+
+    // Anything that would not map back onto Resume is refused before it reaches Mongo
+    private Object convert(ResumePatchRequest.Operation operation, JavaType type) {
+        try {
+            return objectMapper.convertValue(operation.getValue(), type);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + operation.getPath() + ": expected "
+                    + type.getRawClass().getSimpleName());
+        }
+    }
+
+    // "workExperience[2].description" -> "workExperience.2.description"
+    private String toMongoPath(String path) {
+        StringBuilder mongoPath = new StringBuilder();
+        String[] segments = path.split("\\.");
+        for (int i = 0; i < segments.length; i++) {
+            Matcher segment = PATH_SEGMENT.matcher(segments[i]);
+            if (!segment.matches()) {
+                throw new IllegalArgumentException("Invalid path: " + path);
+            }
+            if (i == 0 && !isPatchable(segment.group(1))) {
+                throw new IllegalArgumentException("Field cannot be patched: " + segment.group(1));
+            }
+            if (i > 0) {
+                mongoPath.append('.');
+            }
+            mongoPath.append(segment.group(1));
+
+            Matcher index = INDEX.matcher(segment.group(2));
+            while (index.find()) {
+                mongoPath.append('.').append(index.group(1));
+            }
+        }
+        return mongoPath.toString();
+    }
+
+    // The server owns the thumbnail while it renders them, a client link would race the render
+    private boolean isPatchable(String field) {
+        return PATCHABLE_FIELDS.contains(field) || (!serverThumbnails && field.equals("thumbnailLink"));
+    }
+
     public void deleteResume(String resumeId, Object principal) {
         // Get the current profile
         AuthResponse response = authService.getProfile(principal);
@@ -0,0 +1,190 @@
+package in.joyhong.resumebuilderapi.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps authenticated SMTP connections open between sends, so bulk mail does
+ * not pay a connect + TLS + AUTH round trip per message. At most
+ * {@code max-connections} transports exist at once; idle ones are closed after
+ * {@code idle-timeout}, and each is retired after a number of messages since
+ * many servers cap messages per session.
+ */
+@Component
+@Slf4j
+public class SmtpTransportPool {
+
+    // Connections used this recently are assumed alive, older ones get a NOOP first
+    private static final long VALIDATE_AFTER_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final JavaMailSenderImpl mailSender;
+    private final Semaphore permits;
+    private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+    private final int maxConnections;
+    private final Duration idleTimeout;
+    private final Duration acquireTimeout;
+    private final int maxMessagesPerConnection;
+    private final MeterRegistry meterRegistry;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.mail.pool.max-connections:4}") int maxConnections,
+                             @Value("${app.mail.pool.idle-timeout:60s}") Duration idleTimeout,
+                             @Value("${app.mail.pool.acquire-timeout:30s}") Duration acquireTimeout,
+                             @Value("${app.mail.pool.max-messages-per-connection:100}") int maxMessagesPerConnection) {
+        this.mailSender = mailSender;
+        this.maxConnections = maxConnections;
+        this.permits = new Semaphore(maxConnections, true);
+        this.idleTimeout = idleTimeout;
+        this.acquireTimeout = acquireTimeout;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("email.smtp.pool.idle", idle, BlockingDeque::size)
+                .description("Open SMTP connections waiting to be reused")
+                .register(meterRegistry);
+        Gauge.builder("email.smtp.pool.active", permits, semaphore -> this.maxConnections - semaphore.availablePermits())
+                .description("SMTP connections currently sending")
+                .register(meterRegistry);
+    }
+
+    public Session session() {
+        return mailSender.getSession();
+    }
+
+    /**
+     * Sends an already prepared message to the given recipients over a pooled
+     * connection. A rejected recipient leaves the connection usable; any other
+     * failure closes it.
+     */
+    public void send(MimeMessage message, Address[] recipients) throws MessagingException {
+        PooledTransport pooled = borrow();
+        boolean reusable = false;
+        // Wire time only, waiting for a connection is not included
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            pooled.transport.sendMessage(message, recipients);
+            pooled.messages++;
+            reusable = true;
+            outcome = "success";
+        } catch (SendFailedException e) {
+            pooled.messages++;
+            reusable = true;
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("email.smtp.send", "mode", "pooled", "outcome", outcome));
+            giveBack(pooled, reusable);
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Timed out waiting for an SMTP connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for an SMTP connection", e);
+        }
+
+        try {
+            // Most recently used first, it is the least likely to have been dropped by the server
+            PooledTransport pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (System.nanoTime() - pooled.lastUsed < VALIDATE_AFTER_NANOS || pooled.transport.isConnected()) {
+                    return pooled;
+                }
+                close(pooled);
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        // Same protocol resolution as JavaMailSenderImpl
+        Session session = mailSender.getSession();
+        String protocol = mailSender.getProtocol();
+        if (Objects.isNull(protocol)) {
+            protocol = session.getProperty("mail.transport.protocol");
+        }
+        Transport transport = session.getTransport(Objects.nonNull(protocol) ? protocol : "smtp");
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        return new PooledTransport(transport);
+    }
+
+    private void giveBack(PooledTransport pooled, boolean reusable) {
+        try {
+            if (reusable && pooled.messages < maxMessagesPerConnection) {
+                pooled.lastUsed = System.nanoTime();
+                idle.offerFirst(pooled);
+            } else {
+                close(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.pool.eviction-interval:30000}")
+    public void evictIdle() {
+        // Oldest connections sit at the tail
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        PooledTransport pooled;
+        while ((pooled = idle.peekLast()) != null && pooled.lastUsed - cutoff < 0) {
+            if (idle.removeLastOccurrence(pooled)) {
+                close(pooled);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            close(pooled);
+        }
+    }
+
+    private static void close(PooledTransport pooled) {
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledTransport {
+        private final Transport transport;
+        private int messages;
+        private volatile long lastUsed = System.nanoTime();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -1,46 +1,31 @@
 package in.joyhong.resumebuilderapi.service;
 
 import in.joyhong.resumebuilderapi.dto.AuthResponse;
+import in.joyhong.resumebuilderapi.template.PreviewAsset;
+import in.joyhong.resumebuilderapi.template.TemplateCatalog;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
-import static in.joyhong.resumebuilderapi.util.AppConstants.PREMIUM;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TemplatesService {
 
     private final AuthService authService;
+    private final TemplateCatalog templateCatalog;
 
     public Map<String, Object> getTemplates(Object principal) {
         // Get the current profile
         AuthResponse authResponse = authService.getProfile(principal);
 
-        // Get the available templates based on subscription
-        List<String> availableTemplates;
-
-        Boolean isPremium = PREMIUM.equalsIgnoreCase(authResponse.getSubscriptionPlan());
-
-        if (isPremium == true) {
-            availableTemplates = List.of("01", "02", "03");
-        } else {
-            availableTemplates = List.of("01");
-        }
-
-        // Add the data into map
-        Map<String, Object> restrictions = new HashMap<>();
-        restrictions.put("availableTemplates", availableTemplates);
-        restrictions.put("allTemplates", List.of("01", "02", "03"));
-        restrictions.put("subscriptionPlan", authResponse.getSubscriptionPlan());
-        restrictions.put("isPremium", isPremium);
+        // Precomputed and immutable, shared by every user on the same plan
+        return templateCatalog.templatesFor(authResponse.getSubscriptionPlan());
+    }
 
-        // Return the result
-        return restrictions;
+    public PreviewAsset getPreview(String name) {
+        return templateCatalog.preview(name);
     }
 }
@@ -0,0 +1,192 @@
+package in.joyhong.resumebuilderapi.service;
+
+import in.joyhong.resumebuilderapi.document.Resume;
+import in.joyhong.resumebuilderapi.template.TemplateCatalog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders resume thumbnails on the server. Saves are debounced per resume so a
+ * burst of edits produces one render, and the renders themselves run on a
+ * small bounded pool; when its queue is full the job is dropped and the next
+ * save schedules a fresh one.
+ */
+@Service
+@Slf4j
+public class ThumbnailService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ResumePdfRenderer resumePdfRenderer;
+    private final TemplateCatalog templateCatalog;
+    private final FileUploadService fileUploadService;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration debounce;
+    private final float dpi;
+
+    private final Map<String, PendingRender> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService debouncer;
+    private final ThreadPoolExecutor renderPool;
+
+    public ThumbnailService(MongoTemplate mongoTemplate,
+                            ResumePdfRenderer resumePdfRenderer,
+                            TemplateCatalog templateCatalog,
+                            FileUploadService fileUploadService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.thumbnail.enabled:true}") boolean enabled,
+                            @Value("${app.thumbnail.debounce:3s}") Duration debounce,
+                            @Value("${app.thumbnail.dpi:40}") float dpi,
+                            @Value("${app.thumbnail.threads:2}") int threads,
+                            @Value("${app.thumbnail.queue-capacity:100}") int queueCapacity) {
+        this.mongoTemplate = mongoTemplate;
+        this.resumePdfRenderer = resumePdfRenderer;
+        this.templateCatalog = templateCatalog;
+        this.fileUploadService = fileUploadService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.debounce = debounce;
+        this.dpi = dpi;
+
+        this.debouncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "thumbnail-debounce");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger counter = new AtomicInteger();
+        this.renderPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-render-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("thumbnail.queue.size", renderPool, pool -> pool.getQueue().size())
+                .description("Thumbnail renders waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("thumbnail.active", renderPool, ThreadPoolExecutor::getActiveCount)
+                .description("Thumbnail renders in progress")
+                .register(meterRegistry);
+        Gauge.builder("thumbnail.pending", pending, Map::size)
+                .description("Resumes waiting out the debounce window")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onResumeSaved(ResumeSavedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        // Every save restarts the window, only the last one in a burst renders
+        pending.compute(event.resumeId(), (resumeId, scheduled) -> {
+            if (Objects.nonNull(scheduled)) {
+                scheduled.future.cancel(false);
+            }
+            PendingRender next = new PendingRender();
+            next.future = debouncer.schedule(() -> enqueue(resumeId, next), debounce.toMillis(), TimeUnit.MILLISECONDS);
+            return next;
+        });
+    }
+
+    private void enqueue(String resumeId, PendingRender render) {
+        // Only clear our own entry, a save that raced in has already scheduled the next one
+        pending.remove(resumeId, render);
+        try {
+            renderPool.execute(() -> generate(resumeId));
+        } catch (RejectedExecutionException e) {
+            count("rejected");
+            log.warn("Thumbnail queue is full, skipping resume {}", resumeId);
+        }
+    }
+
+    private void generate(String resumeId) {
+        // Read the latest state, the resume may have changed or gone since the save
+        Resume resume = mongoTemplate.findById(resumeId, Resume.class);
+        if (Objects.isNull(resume)) {
+            count("skipped");
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            byte[] png = renderFirstPage(resume);
+            String imageUrl = fileUploadService.uploadGeneratedImage(png, "thumbnails/" + resumeId);
+
+            // Targeted update; a newer save already has its own render queued.
+            // Only the thumbnail stamp moves, an editor's If-Match on the content version stays valid
+            Query query = new Query(Criteria.where("_id").is(resumeId).and("updatedAt").is(resume.getUpdatedAt()));
+            mongoTemplate.updateFirst(query, Update.update("thumbnailLink", imageUrl).inc("thumbnailVersion", 1), Resume.class);
+            count("success");
+        } catch (Exception e) {
+            count("failure");
+            log.error("Thumbnail generation failed for resume {}", resumeId, e);
+        } finally {
+            sample.stop(Timer.builder("thumbnail.render")
+                    .description("Time to render and store a resume thumbnail")
+                    .register(meterRegistry));
+        }
+    }
+
+    private byte[] renderFirstPage(Resume resume) throws IOException {
+        Resume.Template template = resume.getTemplate();
+        String templateId = Objects.nonNull(template) && templateCatalog.contains(template.getTheme())
+                ? template.getTheme()
+                : templateCatalog.defaultTemplateId();
+        byte[] pdf = resumePdfRenderer.render(resume, templateId);
+
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            BufferedImage image = new PDFRenderer(document).renderImageWithDPI(0, dpi, ImageType.RGB);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+    }
+
+    // Identity of one scheduled render, created before scheduling so the task can find itself
+    private static final class PendingRender {
+        private volatile ScheduledFuture<?> future;
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("thumbnail.jobs", "result", result).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        debouncer.shutdownNow();
+        renderPool.shutdown();
+    }
+}
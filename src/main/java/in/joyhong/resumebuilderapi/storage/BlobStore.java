@@ -0,0 +1,18 @@
+package in.joyhong.resumebuilderapi.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Where uploaded and generated files end up. Keys are slash separated paths
+ * such as {@code images/<hash>-profile}. With {@code overwrite} a put replaces
+ * the blob under an existing key; without it the stored blob is kept and its
+ * URL returned, which is what content-addressed keys want. The returned URL
+ * changes whenever the content does, so clients may cache it indefinitely.
+ */
+public interface BlobStore {
+
+    String put(String key, Path file, String contentType, boolean overwrite) throws IOException;
+
+    String put(String key, byte[] content, String contentType, boolean overwrite) throws IOException;
+}
@@ -0,0 +1,54 @@
+package in.joyhong.resumebuilderapi.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import in.joyhong.resumebuilderapi.util.BlockingCallExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "cloudinary", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CloudinaryBlobStore implements BlobStore {
+
+    private final Cloudinary cloudinary;
+    private final BlockingCallExecutor blockingCallExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public String put(String key, Path file, String contentType, boolean overwrite) throws IOException {
+        // The http44 uploader streams File bodies from disk
+        return upload(file.toFile(), key, overwrite);
+    }
+
+    @Override
+    public String put(String key, byte[] content, String contentType, boolean overwrite) throws IOException {
+        return upload(content, key, overwrite);
+    }
+
+    private String upload(Object file, String key, boolean overwrite) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            // secure_url carries the asset version, so an overwrite yields a new URL.
+            // Without overwrite an existing asset is kept and nothing on the CDN is purged
+            Map<String, Object> uploadResult = blockingCallExecutor.call(() ->
+                    cloudinary.uploader().upload(file, ObjectUtils.asMap(
+                            "resource_type", "auto",
+                            "public_id", key,
+                            "overwrite", overwrite,
+                            "invalidate", overwrite)));
+            outcome = "success";
+            return uploadResult.get("secure_url").toString();
+        } finally {
+            sample.stop(meterRegistry.timer("storage.upload", "store", "cloudinary", "outcome", outcome));
+        }
+    }
+}
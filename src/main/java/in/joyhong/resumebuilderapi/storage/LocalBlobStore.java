@@ -0,0 +1,115 @@
+package in.joyhong.resumebuilderapi.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps blobs on the local filesystem and serves them back through
+ * {@code /api/files}. Used for on-prem deployments and as a stand-in for
+ * Cloudinary when load testing.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+@Slf4j
+public class LocalBlobStore implements BlobStore {
+
+    private static final Pattern VALID_KEY = Pattern.compile("[A-Za-z0-9_-]+(/[A-Za-z0-9_-]+)*");
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "application/pdf", ".pdf");
+
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalBlobStore(@Value("${app.storage.local.root:./data/blobs}") Path root,
+                          @Value("${app.storage.local.base-url:http://localhost:8080/api/files}") String baseUrl) throws IOException {
+        this.root = Files.createDirectories(root.toAbsolutePath().normalize());
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        log.info("Storing blobs under {}", this.root);
+    }
+
+    @Override
+    public String put(String key, Path file, String contentType, boolean overwrite) throws IOException {
+        Path target = target(key, contentType);
+        if (!overwrite && Files.isRegularFile(target)) {
+            return url(target);
+        }
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+            return publish(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public String put(String key, byte[] content, String contentType, boolean overwrite) throws IOException {
+        Path target = target(key, contentType);
+        if (!overwrite && Files.isRegularFile(target)) {
+            return url(target);
+        }
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.write(temp, content);
+            return publish(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Resolves a request path such as {@code images/abc.jpg} to a stored file,
+     * or null if it is not a valid blob path.
+     */
+    public Path resolve(String path) {
+        int dot = path.lastIndexOf('.');
+        if (dot < 0 || !VALID_KEY.matcher(path.substring(0, dot)).matches()
+                || !EXTENSIONS.containsValue(path.substring(dot))) {
+            return null;
+        }
+        Path file = root.resolve(path).normalize();
+        return file.startsWith(root) && Files.isRegularFile(file) ? file : null;
+    }
+
+    private Path target(String key, String contentType) throws IOException {
+        if (!VALID_KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        String extension = EXTENSIONS.getOrDefault(contentType, "");
+        if (extension.isEmpty()) {
+            throw new IllegalArgumentException("Unsupported content type: " + contentType);
+        }
+        Path target = root.resolve(key + extension).normalize();
+        Files.createDirectories(target.getParent());
+        return target;
+    }
+
+    private String publish(Path temp, Path target) throws IOException {
+        // Readers never see a half-written file
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return url(target);
+    }
+
+    private String url(Path target) throws IOException {
+        // Version parameter makes the URL change with the content
+        long version = Files.getLastModifiedTime(target).toMillis();
+        return baseUrl + "/" + root.relativize(target).toString().replace('\\', '/') + "?v=" + version;
+    }
+}
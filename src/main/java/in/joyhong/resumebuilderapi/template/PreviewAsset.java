@@ -0,0 +1,8 @@
+package in.joyhong.resumebuilderapi.template;
+
+/**
+ * A preview image held in memory, served under a name that contains its
+ * content hash.
+ */
+public record PreviewAsset(String name, byte[] content, String contentType, String eTag) {
+}
@@ -0,0 +1,192 @@
+package in.joyhong.resumebuilderapi.template;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static in.joyhong.resumebuilderapi.util.AppConstants.PREMIUM;
+import static in.joyhong.resumebuilderapi.util.AppConstants.TEMPLATES;
+
+/**
+ * The resume templates, loaded once at startup from a versioned descriptor
+ * ({@code app.templates.catalog}). Everything the API hands out is built
+ * here up front: the templates response for each plan, and the preview images
+ * under content-hashed names so they can be cached forever.
+ */
+@Component
+@Slf4j
+public class TemplateCatalog {
+
+    static final int SUPPORTED_VERSION = 1;
+
+    private static final Set<String> HEADER_STYLES = Set.of("plain", "band");
+    private static final Pattern HEX_COLOR = Pattern.compile("#[0-9a-fA-F]{6}");
+
+    private final List<String> plans;
+    private final Map<String, TemplateDescriptor> templates = new LinkedHashMap<>();
+    private final Map<String, PreviewAsset> previews = new LinkedHashMap<>();
+    private final List<TemplateSummary> summaries = new ArrayList<>();
+    private final List<String> allTemplateIds;
+    private final Map<String, Map<String, Object>> responses = new LinkedHashMap<>();
+
+    public TemplateCatalog(ObjectMapper objectMapper,
+                           ResourceLoader resourceLoader,
+                           @Value("${app.templates.catalog:classpath:template-catalog/catalog-v1.json}") String location,
+                           @Value("${app.templates.asset-base-url:}") String assetBaseUrl) throws IOException {
+        Resource catalog = resourceLoader.getResource(location);
+        TemplateCatalogDescriptor descriptor;
+        try (InputStream in = catalog.getInputStream()) {
+            descriptor = objectMapper.readValue(in, TemplateCatalogDescriptor.class);
+        }
+        validate(descriptor, location);
+        this.plans = List.copyOf(descriptor.plans());
+
+        for (TemplateDescriptor template : descriptor.templates()) {
+            templates.put(template.id(), template);
+
+            // Hash in the name, a changed image gets a new URL
+            Resource preview = catalog.createRelative(template.preview());
+            if (!preview.exists()) {
+                throw new IllegalStateException("Preview " + template.preview() + " of template " + template.id() + " is missing.");
+            }
+            byte[] content;
+            try (InputStream in = preview.getInputStream()) {
+                content = in.readAllBytes();
+            }
+            String hash = sha256(content).substring(0, 16);
+            String name = template.id() + "." + hash + "." + StringUtils.getFilenameExtension(template.preview());
+            String contentType = MediaTypeFactory.getMediaType(template.preview())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+            previews.put(name, new PreviewAsset(name, content, contentType, "\"" + hash + "\""));
+
+            summaries.add(new TemplateSummary(template.id(), template.name(), template.description(),
+                    template.requiredPlan(), template.palettes(), assetBaseUrl + TEMPLATES + "/previews/" + name));
+        }
+        this.allTemplateIds = List.copyOf(templates.keySet());
+
+        // One immutable response per plan, shared by every request; users carry the plan in any casing
+        for (String plan : plans) {
+            responses.put(plan.toLowerCase(Locale.ROOT), buildResponse(plan));
+        }
+
+        log.info("Loaded template catalog v{} from {}: {} templates, plans {}", descriptor.version(), location,
+                templates.size(), plans);
+    }
+
+    /**
+     * The templates response for a plan, matched ignoring case. Plans the
+     * catalog does not know (including none) get what the lowest plan gets.
+     */
+    public Map<String, Object> templatesFor(String plan) {
+        Map<String, Object> response = Objects.isNull(plan) ? null : responses.get(plan.toLowerCase(Locale.ROOT));
+        return Objects.nonNull(response) ? response : responses.get(plans.get(0).toLowerCase(Locale.ROOT));
+    }
+
+    public boolean contains(String templateId) {
+        return Objects.nonNull(templateId) && templates.containsKey(templateId);
+    }
+
+    public TemplateDescriptor get(String templateId) {
+        return templates.get(templateId);
+    }
+
+    public List<TemplateDescriptor> templates() {
+        return List.copyOf(templates.values());
+    }
+
+    public String defaultTemplateId() {
+        return allTemplateIds.get(0);
+    }
+
+    public PreviewAsset preview(String name) {
+        return previews.get(name);
+    }
+
+    private Map<String, Object> buildResponse(String plan) {
+        int rank = Math.max(rank(plan), 0);
+        List<String> available = templates.values().stream()
+                .filter(template -> rank(template.requiredPlan()) <= rank)
+                .map(TemplateDescriptor::id)
+                .toList();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("availableTemplates", available);
+        response.put("allTemplates", allTemplateIds);
+        response.put("subscriptionPlan", plan);
+        response.put("isPremium", PREMIUM.equalsIgnoreCase(plan));
+        response.put("templates", List.copyOf(summaries));
+        return Collections.unmodifiableMap(response);
+    }
+
+    private int rank(String plan) {
+        for (int i = 0; i < plans.size(); i++) {
+            if (plans.get(i).equalsIgnoreCase(plan)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void validate(TemplateCatalogDescriptor descriptor, String location) {
+        if (descriptor.version() != SUPPORTED_VERSION) {
+            throw new IllegalStateException("Template catalog " + location + " has version " + descriptor.version()
+                    + ", expected " + SUPPORTED_VERSION + ".");
+        }
+        if (Objects.isNull(descriptor.plans()) || descriptor.plans().isEmpty()
+                || Objects.isNull(descriptor.templates()) || descriptor.templates().isEmpty()) {
+            throw new IllegalStateException("Template catalog " + location + " declares no plans or no templates.");
+        }
+
+        Set<String> ids = new HashSet<>();
+        for (TemplateDescriptor template : descriptor.templates()) {
+            String id = template.id();
+            if (!StringUtils.hasText(id) || !ids.add(id)) {
+                throw new IllegalStateException("Template id " + id + " is missing or duplicated.");
+            }
+            if (!descriptor.plans().contains(template.requiredPlan())) {
+                throw new IllegalStateException("Template " + id + " requires unknown plan " + template.requiredPlan() + ".");
+            }
+            if (Objects.isNull(template.layout()) || !HEADER_STYLES.contains(template.layout().header())) {
+                throw new IllegalStateException("Template " + id + " has no valid layout.");
+            }
+            if (Objects.isNull(template.palettes()) || template.palettes().isEmpty()
+                    || template.palettes().stream().anyMatch(palette -> palette.isEmpty()
+                    || !palette.stream().allMatch(color -> HEX_COLOR.matcher(color).matches()))) {
+                throw new IllegalStateException("Template " + id + " needs at least one palette of #rrggbb colors.");
+            }
+            if (!StringUtils.hasText(template.preview())) {
+                throw new IllegalStateException("Template " + id + " has no preview.");
+            }
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package in.joyhong.resumebuilderapi.template;
+
+import java.util.List;
+
+/**
+ * Root of {@code template-catalog/catalog-v<version>.json}. Plans are listed
+ * from lowest to highest; a template is available to its required plan and
+ * every plan after it.
+ */
+public record TemplateCatalogDescriptor(int version, List<String> plans, List<TemplateDescriptor> templates) {
+}
@@ -0,0 +1,19 @@
+package in.joyhong.resumebuilderapi.template;
+
+import java.util.List;
+
+/**
+ * One template as declared in the catalog descriptor. Palettes are lists of
+ * hex colors, the first color of the first palette is the template's accent.
+ */
+public record TemplateDescriptor(String id,
+                                 String name,
+                                 String description,
+                                 String requiredPlan,
+                                 Layout layout,
+                                 List<List<String>> palettes,
+                                 String preview) {
+
+    public record Layout(String header, boolean sidebar) {
+    }
+}
@@ -0,0 +1,14 @@
+package in.joyhong.resumebuilderapi.template;
+
+import java.util.List;
+
+/**
+ * A template as returned by {@code GET /api/templates}.
+ */
+public record TemplateSummary(String id,
+                              String name,
+                              String description,
+                              String requiredPlan,
+                              List<List<String>> palettes,
+                              String previewUrl) {
+}
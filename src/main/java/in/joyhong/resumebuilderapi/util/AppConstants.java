@@ -11,6 +11,12 @@ public class AppConstants {
     public static final String PROFILE = "/profile";
     public static final String RESUME = "/api/resumes";
     public static final String ID = "/{id}";
+    public static final String SUMMARY = "/summary";
     public static final String UPLOAD_IMAGES = "/{id}/upload-images";
+    public static final String PDF = "/{id}/pdf";
+    public static final String FILES = "/api/files";
+    public static final String FILE_PATH = "/{*path}";
+    public static final String TEMPLATES = "/api/templates";
+    public static final String TEMPLATE_PREVIEW = "/previews/{name}";
     public static final String PREMIUM = "premium";
 }
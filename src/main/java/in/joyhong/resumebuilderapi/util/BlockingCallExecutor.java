@@ -0,0 +1,128 @@
+package in.joyhong.resumebuilderapi.util;
+
+import in.joyhong.resumebuilderapi.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs outbound calls to client libraries that block while holding a monitor
+ * (JavaMail's synchronized SMTPTransport, the Cloudinary/Apache HttpClient
+ * upload path and the Razorpay/OkHttp client).
+ * <p>
+ * When virtual threads are enabled ({@code spring.threads.virtual.enabled}) and
+ * the caller is a virtual thread, the call is handed to a pool of platform
+ * threads and the virtual thread parks on the result, so the carrier thread is
+ * never pinned. Otherwise the call simply runs on the caller's thread. The
+ * Mongo driver uses j.u.c locks and is called directly.
+ * <p>
+ * The pool is sized like Tomcat's platform request pool ({@code server.tomcat.threads.max},
+ * 200 by default), so offloading never lets fewer slow SMTP, Cloudinary or
+ * Razorpay calls run at once than before. Its queue is bounded; when both are
+ * full the call is refused with a {@link ServiceBusyException} (503) instead
+ * of piling up. Without virtual threads the same pool backs {@link #ioExecutor()}.
+ */
+@Component
+@Slf4j
+public class BlockingCallExecutor {
+
+    @FunctionalInterface
+    public interface BlockingCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final boolean virtualThreadsEnabled;
+    private final ThreadPoolExecutor offloadPool;
+    private final ExecutorService ioExecutor;
+
+    public BlockingCallExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                                @Value("${app.threads.offload.max-threads:${server.tomcat.threads.max:200}}") int offloadThreads,
+                                @Value("${app.threads.offload.queue-capacity:200}") int queueCapacity) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.offloadPool = new ThreadPoolExecutor(offloadThreads, offloadThreads,
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "blocking-io-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> {
+                    throw new ServiceBusyException("Too many outbound calls in progress. Please try again shortly.", 1);
+                });
+        this.offloadPool.allowCoreThreadTimeOut(true);
+
+        // Fan-out executor for independent I/O calls made from one request
+        this.ioExecutor = virtualThreadsEnabled
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("io-", 0).factory())
+                : offloadPool;
+
+        log.info("Blocking I/O mode: {}", virtualThreadsEnabled ? "virtual threads" : "platform threads");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> T call(BlockingCall<T, E> task) throws E {
+        if (!virtualThreadsEnabled || !Thread.currentThread().isVirtual()) {
+            return task.call();
+        }
+
+        Future<T> future = offloadPool.submit(task::call);
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            // Give up on the call too, the platform thread is interrupted out of its I/O
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a blocking call", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw (E) cause;
+        }
+    }
+
+    public ExecutorService ioExecutor() {
+        return ioExecutor;
+    }
+
+    public boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    public int offloadActiveCount() {
+        return offloadPool.getActiveCount();
+    }
+
+    public int offloadPoolSize() {
+        return offloadPool.getPoolSize();
+    }
+
+    public int offloadQueueSize() {
+        return offloadPool.getQueue().size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ioExecutor != offloadPool) {
+            ioExecutor.shutdown();
+        }
+        offloadPool.shutdown();
+    }
+}
@@ -0,0 +1,77 @@
+package in.joyhong.resumebuilderapi.util;
+
+import in.joyhong.resumebuilderapi.exception.PreconditionFailedException;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Strong ETags derived from a document version, e.g. {@code "7"}, or from a
+ * content version and a thumbnail stamp, e.g. {@code "7.2"}. Conditional GETs
+ * compare the whole tag, If-Match only the content version before the dot.
+ */
+public class ETagUtil {
+
+    private ETagUtil() {
+    }
+
+    public static String toETag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // A thumbnail re-render changes what GET returns but not what an editor sent
+    public static String toETag(long version, long thumbnailVersion) {
+        return thumbnailVersion == 0 ? toETag(version) : "\"" + version + "." + thumbnailVersion + "\"";
+    }
+
+    // True if an If-None-Match header lists the current ETag (or "*")
+    public static boolean matchesAny(String header, String current) {
+        if (header == null) {
+            return false;
+        }
+        for (String tag : header.split(",")) {
+            String candidate = tag.trim();
+            // If-None-Match uses weak comparison
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versions an If-Match header accepts, or null when the header is absent
+     * or "*" (any existing version). Weak or malformed tags can never match;
+     * a header listing nothing else fails the precondition.
+     */
+    public static Set<Long> parseIfMatch(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        Set<Long> versions = new LinkedHashSet<>();
+        for (String tag : header.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*")) {
+                return null;
+            }
+            // If-Match uses strong comparison
+            if (candidate.length() < 3 || !candidate.startsWith("\"") || !candidate.endsWith("\"")) {
+                continue;
+            }
+            String opaque = candidate.substring(1, candidate.length() - 1);
+            int stamp = opaque.indexOf('.');
+            try {
+                versions.add(Long.parseLong(stamp < 0 ? opaque : opaque.substring(0, stamp)));
+            } catch (NumberFormatException e) {
+                // Not a tag this API issued
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("If-Match does not match the current version.");
+        }
+        return versions;
+    }
+}
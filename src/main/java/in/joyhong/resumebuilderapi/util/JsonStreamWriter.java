@@ -0,0 +1,53 @@
+package in.joyhong.resumebuilderapi.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a Mongo cursor-backed {@link Stream} as a JSON array, one document at
+ * a time, so the response never materializes the whole result in heap.
+ */
+@Component
+public class JsonStreamWriter {
+
+    private static final int FLUSH_EVERY = 64;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter elementWriter;
+
+    public JsonStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // Flushing after every element would turn each one into its own chunk
+        this.elementWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * The stream is opened inside the response body, on the thread that writes
+     * it, and always closed so the cursor is released.
+     */
+    public <T> StreamingResponseBody writeArray(Supplier<Stream<T>> source) {
+        return outputStream -> {
+            try (Stream<T> stream = source.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                int written = 0;
+                Iterator<T> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    elementWriter.writeValue(generator, iterator.next());
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.writeEndArray();
+            }
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package in.joyhong.resumebuilderapi.util;
+
+import com.mongodb.MongoException;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in a multi-document transaction when the deployment
+ * supports one (replica set or sharded cluster) and directly otherwise, so
+ * the same code works against a local standalone mongod. Controlled by
+ * {@code app.mongo.transactions}: auto (detect on first use), always or never.
+ */
+@Component
+@Slf4j
+public class MongoTransactions {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String mode;
+
+    private volatile Boolean supported;
+
+    public MongoTransactions(MongoTemplate mongoTemplate,
+                             MongoTransactionManager transactionManager,
+                             @Value("${app.mongo.transactions:auto}") String mode) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mode = mode;
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        if (!isSupported()) {
+            return work.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                // Write conflicts with a concurrent transaction are safe to retry from the start
+                if (attempt >= MAX_ATTEMPTS || !isTransient(e)) {
+                    throw e;
+                }
+                log.debug("Retrying transaction after transient error: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isSupported() {
+        Boolean current = supported;
+        if (current == null) {
+            current = switch (mode) {
+                case "always" -> true;
+                case "never" -> false;
+                default -> detect();
+            };
+            // Not cached when detection failed, the next call asks again
+            if (current != null) {
+                supported = current;
+            }
+        }
+        return Boolean.TRUE.equals(current);
+    }
+
+    private Boolean detect() {
+        try {
+            Document hello = mongoTemplate.getDb().runCommand(new Document("hello", 1));
+            boolean replicated = hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg"));
+            log.info("MongoDB {} multi-document transactions", replicated ? "supports" : "does not support");
+            return replicated;
+        } catch (Exception e) {
+            log.warn("Could not determine MongoDB topology, running without a transaction: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
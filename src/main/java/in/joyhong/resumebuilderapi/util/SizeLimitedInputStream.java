@@ -0,0 +1,65 @@
+package in.joyhong.resumebuilderapi.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Passes bytes through until more than {@code maxBytes} have been read, then
+ * fails with {@link LimitExceededException}. Used where the declared size of
+ * an upload cannot be trusted. The failure is an {@link IOException} so that
+ * consumers such as GridFS treat it as a failed read and abort cleanly.
+ */
+public class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    public SizeLimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            advance(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void advance(long bytes) throws LimitExceededException {
+        count += bytes;
+        if (count > maxBytes) {
+            throw new LimitExceededException("Attachment exceeds the maximum size of " + maxBytes + " bytes.");
+        }
+    }
+
+    public static class LimitExceededException extends IOException {
+        public LimitExceededException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package in.joyhong.resumebuilderapi.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Creates the declared indexes in a scratch database and checks that no
+ * repository finder falls back to a collection scan. Runs against a local
+ * mongod when {@code TEST_MONGODB_URI} is set, e.g.
+ * {@code TEST_MONGODB_URI=mongodb://localhost:27017 mvn test -Dtest=MongoIndexManagerTest}.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_MONGODB_URI", matches = ".+")
+class MongoIndexManagerTest {
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private MongoIndexManager indexManager;
+
+    @BeforeEach
+    void setUp() {
+        client = MongoClients.create(System.getenv("TEST_MONGODB_URI"));
+        mongoTemplate = new MongoTemplate(client, "index_test_" + UUID.randomUUID().toString().substring(0, 8));
+        indexManager = new MongoIndexManager(mongoTemplate);
+        ReflectionTestUtils.setField(indexManager, "outboxRetention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(indexManager, "webhookRetention", Duration.ofDays(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Test
+    void everyFinderUsesAnIndex() {
+        indexManager.ensureIndexes();
+
+        List<MongoIndexManager.PlanReport> reports = indexManager.verifyQueryPlans();
+
+        assertThat(reports).hasSameSizeAs(indexManager.queries());
+        assertThat(reports)
+                .filteredOn(MongoIndexManager.PlanReport::collectionScan)
+                .as("queries planned as a collection scan")
+                .isEmpty();
+    }
+}
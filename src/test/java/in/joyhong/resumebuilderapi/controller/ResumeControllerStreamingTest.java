@@ -0,0 +1,97 @@
+package in.joyhong.resumebuilderapi.controller;
+
+import in.joyhong.resumebuilderapi.config.SecurityConfig;
+import in.joyhong.resumebuilderapi.document.Resume;
+import in.joyhong.resumebuilderapi.security.UserPrincipal;
+import in.joyhong.resumebuilderapi.security.UserPrincipalCache;
+import in.joyhong.resumebuilderapi.security.VerifiedTokenCache;
+import in.joyhong.resumebuilderapi.service.FileUploadService;
+import in.joyhong.resumebuilderapi.service.ResumePdfService;
+import in.joyhong.resumebuilderapi.service.ResumeService;
+import in.joyhong.resumebuilderapi.util.JsonStreamWriter;
+import in.joyhong.resumebuilderapi.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The resume listing is written on an async dispatch; it has to pass the
+ * security filter chain a second time with the JWT-authenticated request.
+ */
+@WebMvcTest(ResumeController.class)
+@Import({SecurityConfig.class, JsonStreamWriter.class, ResumeControllerStreamingTest.Metrics.class})
+class ResumeControllerStreamingTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ResumeService resumeService;
+    @MockitoBean
+    private FileUploadService fileUploadService;
+    @MockitoBean
+    private ResumePdfService resumePdfService;
+    @MockitoBean
+    private JwtUtil jwtUtil;
+    @MockitoBean
+    private UserPrincipalCache userPrincipalCache;
+    @MockitoBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Test
+    void streamsTheListingOnTheAsyncDispatch() throws Exception {
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn("user-1");
+        when(claims.getExpiration()).thenReturn(new Date(System.currentTimeMillis() + 60_000));
+        when(jwtUtil.parseClaims("token")).thenReturn(claims);
+        when(userPrincipalCache.get("user-1")).thenReturn(
+                new UserPrincipal("user-1", "Test", "test@example.com", null, "basic", true, null, null));
+        when(resumeService.streamUserResumes(any())).thenAnswer(invocation -> Stream.of(
+                Resume.builder().id("r1").title("First").build(),
+                Resume.builder().id("r2").title("Second").build()));
+
+        MvcResult started = mockMvc.perform(get("/api/resumes").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"_id\":\"r1\",\"title\":\"First\"},{\"_id\":\"r2\",\"title\":\"Second\"}]"));
+    }
+
+    @Test
+    void stillRejectsAnonymousRequests() throws Exception {
+        mockMvc.perform(get("/api/resumes"))
+                .andExpect(status().isUnauthorized());
+    }
+}
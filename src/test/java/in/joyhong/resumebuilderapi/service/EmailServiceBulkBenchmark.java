@@ -0,0 +1,198 @@
+package in.joyhong.resumebuilderapi.service;
+
+import in.joyhong.resumebuilderapi.dto.BulkSendResult;
+import in.joyhong.resumebuilderapi.util.BlockingCallExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Messages per second for one resume sent to many recipients, one
+ * {@code JavaMailSender.send} per message against {@link EmailService#sendBulk}
+ * over pooled connections. Runs against an in-process SMTP sink that answers
+ * every command after {@link #ROUND_TRIP}, standing in for the network.
+ * Not part of the default test run, start it with
+ * {@code mvn test -Dtest=EmailServiceBulkBenchmark}.
+ */
+class EmailServiceBulkBenchmark {
+
+    private static final int RECIPIENTS = 50;
+    private static final int ROUNDS = 5;
+    private static final int ATTACHMENT_BYTES = 200 * 1024;
+    private static final Duration ROUND_TRIP = Duration.ofMillis(2);
+
+    private SmtpSink sink;
+    private SmtpTransportPool pool;
+    private EmailService emailService;
+    private byte[] attachment;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sink = new SmtpSink(ROUND_TRIP);
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(sink.port());
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BlockingCallExecutor blockingCallExecutor = new BlockingCallExecutor(false, 16, 200);
+        pool = new SmtpTransportPool(mailSender, meterRegistry, 4, Duration.ofSeconds(60), Duration.ofSeconds(30), 100);
+        emailService = new EmailService(mailSender, blockingCallExecutor, pool, meterRegistry);
+        ReflectionTestUtils.setField(emailService, "fromEmail", "resumes@example.com");
+        ReflectionTestUtils.setField(emailService, "maxBulkRecipients", RECIPIENTS);
+
+        attachment = new byte[ATTACHMENT_BYTES];
+        new Random(42).nextBytes(attachment);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pool.shutdown();
+        sink.close();
+    }
+
+    @Test
+    void bulkSendThroughput() throws Exception {
+        List<String> recipients = IntStream.range(0, RECIPIENTS).mapToObj(i -> "recruiter" + i + "@example.com").toList();
+
+        Path file = Files.createTempFile("resume-", ".pdf");
+        try {
+            Files.write(file, attachment);
+            emailService.sendEmailWithAttachment(recipients.get(0), "Warm-up", "Hello", file.toFile(), "resume.pdf");
+            long started = System.nanoTime();
+            for (int round = 0; round < ROUNDS; round++) {
+                for (String recipient : recipients) {
+                    emailService.sendEmailWithAttachment(recipient, "My resume", "Please find my resume attached.",
+                            file.toFile(), "resume.pdf");
+                }
+            }
+            report("one session each", ROUNDS * RECIPIENTS, System.nanoTime() - started);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        emailService.sendBulk(recipients.subList(0, 4), "Warm-up", "Hello", new ByteArrayResource(attachment), "resume.pdf");
+        long started = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            List<BulkSendResult> results = emailService.sendBulk(recipients, "My resume",
+                    "Please find my resume attached.", new ByteArrayResource(attachment), "resume.pdf");
+            assertThat(results).extracting(BulkSendResult::getStatus).containsOnly("sent");
+        }
+        report("pooled bulk", ROUNDS * RECIPIENTS, System.nanoTime() - started);
+        System.out.println("sink accepted " + sink.messages() + " messages over " + sink.sessions() + " sessions");
+    }
+
+    private static void report(String label, int messages, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%-17s %5d messages in %6.2fs, %7.1f messages/s%n", label, messages, seconds, messages / seconds);
+    }
+
+    /**
+     * Accepts any sender, recipient and message and discards the data. Enough
+     * of RFC 5321 for JavaMail without AUTH or STARTTLS.
+     */
+    private static final class SmtpSink implements AutoCloseable {
+
+        private final ServerSocket server;
+        private final ExecutorService connections = Executors.newCachedThreadPool();
+        private final Duration roundTrip;
+        private final AtomicInteger messages = new AtomicInteger();
+        private final AtomicInteger sessions = new AtomicInteger();
+
+        private SmtpSink(Duration roundTrip) throws IOException {
+            this.roundTrip = roundTrip;
+            this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            connections.execute(this::acceptLoop);
+        }
+
+        private int port() {
+            return server.getLocalPort();
+        }
+
+        private int messages() {
+            return messages.get();
+        }
+
+        private int sessions() {
+            return sessions.get();
+        }
+
+        private void acceptLoop() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    connections.execute(() -> session(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void session(Socket socket) {
+            sessions.incrementAndGet();
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                 OutputStream out = socket.getOutputStream()) {
+                reply(out, "220 sink ready");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO" -> reply(out, "250-sink\r\n250 8BITMIME");
+                        case "DATA" -> {
+                            reply(out, "354 end with .");
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                // Discard the message
+                            }
+                            messages.incrementAndGet();
+                            reply(out, "250 queued");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 bye");
+                            return;
+                        }
+                        default -> reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // Client went away
+            }
+        }
+
+        private void reply(OutputStream out, String response) throws IOException, InterruptedException {
+            Thread.sleep(roundTrip);
+            out.write((response + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+            connections.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package in.joyhong.resumebuilderapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Normalization throughput over a fixed, generated corpus: camera-sized and
+ * small JPEGs, a rotated camera JPEG and a transparent PNG, for both purposes.
+ * Not part of the default test run, start it with
+ * {@code mvn test -Dtest=ImageNormalizerBenchmark}.
+ */
+class ImageNormalizerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static final List<Path> corpus = new ArrayList<>();
+
+    private final ImageNormalizer normalizer = new ImageNormalizer(new SimpleMeterRegistry(), 40_000_000L, 0);
+
+    @BeforeAll
+    static void createCorpus() throws IOException {
+        Random random = new Random(42);
+        corpus.add(ImageNormalizerTest.writeJpeg(photo(4000, 3000, false, random), 1));
+        corpus.add(ImageNormalizerTest.writeJpeg(photo(4000, 3000, false, random), 6));
+        corpus.add(ImageNormalizerTest.writeJpeg(photo(1920, 1080, false, random), 1));
+        corpus.add(ImageNormalizerTest.writeJpeg(photo(640, 480, false, random), 1));
+        Path png = Files.createTempFile("corpus-", ".png");
+        ImageIO.write(photo(1024, 1024, true, random), "png", png.toFile());
+        corpus.add(png);
+    }
+
+    @AfterAll
+    static void deleteCorpus() throws IOException {
+        for (Path file : corpus) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void normalizeThroughput() throws Exception {
+        long corpusBytes = 0;
+        for (Path file : corpus) {
+            corpusBytes += Files.size(file);
+        }
+
+        for (ImageNormalizer.Purpose purpose : ImageNormalizer.Purpose.values()) {
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                for (Path file : corpus) {
+                    normalizeAndDelete(file, purpose);
+                }
+            }
+
+            long[] latencies = new long[MEASURED_ROUNDS * corpus.size()];
+            int sample = 0;
+            long started = System.nanoTime();
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                for (Path file : corpus) {
+                    long begin = System.nanoTime();
+                    normalizeAndDelete(file, purpose);
+                    latencies[sample++] = System.nanoTime() - begin;
+                }
+            }
+            report(purpose + ", 1 thread", latencies, System.nanoTime() - started, MEASURED_ROUNDS * corpusBytes);
+
+            // Decodes are capped at one per core, so more threads than cores only queue
+            int threads = Runtime.getRuntime().availableProcessors();
+            if (threads == 1) {
+                continue;
+            }
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> jobs = new ArrayList<>();
+                long concurrentStarted = System.nanoTime();
+                for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                    for (Path file : corpus) {
+                        jobs.add(pool.submit(() -> {
+                            normalizeAndDelete(file, purpose);
+                            return null;
+                        }));
+                    }
+                }
+                for (Future<?> job : jobs) {
+                    job.get();
+                }
+                report(purpose + ", " + threads + " threads", new long[0],
+                        System.nanoTime() - concurrentStarted, MEASURED_ROUNDS * corpusBytes, jobs.size());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private void normalizeAndDelete(Path file, ImageNormalizer.Purpose purpose) throws IOException {
+        Files.delete(normalizer.normalize(file, purpose).path());
+    }
+
+    // A gradient with noise, so the encoders see something closer to a photo than a flat fill
+    private static BufferedImage photo(int width, int height, boolean alpha, Random random) {
+        BufferedImage image = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setPaint(new GradientPaint(0, 0, new Color(30, 90, 160), width, height, new Color(230, 180, 90)));
+            graphics.fillRect(0, 0, width, height);
+        } finally {
+            graphics.dispose();
+        }
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(24) - 12;
+                int r = clamp(((row[x] >> 16) & 0xFF) + noise);
+                int g = clamp(((row[x] >> 8) & 0xFF) + noise);
+                int b = clamp((row[x] & 0xFF) + noise);
+                int a = alpha ? (x * 255 / width) : 0xFF;
+                row[x] = (a << 24) | (r << 16) | (g << 8) | b;
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    private static void report(String label, long[] latencies, long elapsedNanos, long bytes) {
+        report(label, latencies, elapsedNanos, bytes, latencies.length);
+    }
+
+    private static void report(String label, long[] latencies, long elapsedNanos, long bytes, int images) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder line = new StringBuilder(String.format("%-22s %5d images in %6.2fs, %7.1f images/s, %6.1f MB/s in",
+                label, images, seconds, images / seconds, bytes / seconds / (1024 * 1024)));
+        if (latencies.length > 0) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            line.append(String.format(", p50 %.1fms, p99 %.1fms",
+                    sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6));
+        }
+        System.out.println(line);
+    }
+}
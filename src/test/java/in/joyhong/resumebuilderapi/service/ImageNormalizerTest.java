@@ -0,0 +1,129 @@
+package in.joyhong.resumebuilderapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageNormalizerTest {
+
+    private final ImageNormalizer normalizer = new ImageNormalizer(new SimpleMeterRegistry(), 40_000_000L, 0);
+    private final List<Path> files = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * The stored image is 200x100 with a red top-left quadrant; after applying
+     * the orientation the red quadrant must sit in the expected corner.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "1, 200, 100, top-left",
+            "2, 200, 100, top-right",
+            "3, 200, 100, bottom-right",
+            "4, 200, 100, bottom-left",
+            "5, 100, 200, top-left",
+            "6, 100, 200, top-right",
+            "7, 100, 200, bottom-right",
+            "8, 100, 200, bottom-left"
+    })
+    void appliesExifOrientation(int orientation, int width, int height, String redCorner) throws IOException {
+        Path source = track(writeJpeg(quadrantImage(), orientation));
+
+        ImageNormalizer.NormalizedImage normalized = normalizer.normalize(source, ImageNormalizer.Purpose.PROFILE);
+        track(normalized.path());
+        BufferedImage result = ImageIO.read(normalized.path().toFile());
+
+        assertThat(result.getWidth()).isEqualTo(width);
+        assertThat(result.getHeight()).isEqualTo(height);
+        int x = redCorner.endsWith("left") ? width / 8 : width - 1 - width / 8;
+        int y = redCorner.startsWith("top") ? height / 8 : height - 1 - height / 8;
+        assertThat(new Color(result.getRGB(x, y)).getRed()).as("red at %s", redCorner).isGreaterThan(200);
+        assertThat(new Color(result.getRGB(width - 1 - x, height - 1 - y)).getRed()).as("opposite corner").isLessThan(60);
+    }
+
+    @Test
+    void ignoresMalformedExif() throws IOException {
+        Path source = track(writeJpeg(quadrantImage(), "Exif\0\0II".getBytes()));
+
+        ImageNormalizer.NormalizedImage normalized = normalizer.normalize(source, ImageNormalizer.Purpose.PROFILE);
+        track(normalized.path());
+
+        assertThat(ImageIO.read(normalized.path().toFile()).getWidth()).isEqualTo(200);
+    }
+
+    private Path track(Path file) {
+        files.add(file);
+        return file;
+    }
+
+    static BufferedImage quadrantImage() {
+        BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.BLUE);
+            graphics.fillRect(0, 0, 200, 100);
+            graphics.setColor(Color.RED);
+            graphics.fillRect(0, 0, 100, 50);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    static Path writeJpeg(BufferedImage image, int orientation) throws IOException {
+        // Big-endian TIFF header with a single IFD0 entry: Orientation, SHORT, count 1
+        ByteBuffer exif = ByteBuffer.allocate(6 + 8 + 2 + 12 + 4);
+        exif.put("Exif\0\0".getBytes());
+        exif.put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(8);
+        exif.putShort((short) 1);
+        exif.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        exif.putInt(0);
+        return writeJpeg(image, exif.array());
+    }
+
+    static Path writeJpeg(BufferedImage image, byte[] app1) throws IOException {
+        Path target = Files.createTempFile("exif-", ".jpg");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), null);
+            String format = metadata.getNativeMetadataFormatName();
+            IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+            IIOMetadataNode segment = new IIOMetadataNode("unknown");
+            segment.setAttribute("MarkerTag", String.valueOf(0xE1));
+            segment.setUserObject(app1);
+            ((IIOMetadataNode) root.getElementsByTagName("markerSequence").item(0)).appendChild(segment);
+            metadata.setFromTree(format, root);
+            writer.write(null, new IIOImage(image, null, metadata), null);
+        } finally {
+            writer.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,151 @@
+package in.joyhong.resumebuilderapi.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.razorpay.Utils;
+import in.joyhong.resumebuilderapi.config.MongoIndexManager;
+import in.joyhong.resumebuilderapi.document.Payment;
+import in.joyhong.resumebuilderapi.document.User;
+import in.joyhong.resumebuilderapi.payment.GatewayOrder;
+import in.joyhong.resumebuilderapi.payment.StubPaymentGateway;
+import in.joyhong.resumebuilderapi.security.UserPrincipalCache;
+import in.joyhong.resumebuilderapi.util.BlockingCallExecutor;
+import in.joyhong.resumebuilderapi.util.MongoTransactions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Payments reconciled per second by one sweep over a scratch database against
+ * the stub gateway with a fixed per-call latency. Half of the stale orders are
+ * paid at the gateway, a quarter are old enough to expire and a quarter stay
+ * pending. Needs a local mongod and is not part of the default test run, e.g.
+ * {@code TEST_MONGODB_URI=mongodb://localhost:27017 mvn test -Dtest=PaymentReconcilerBenchmark}.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_MONGODB_URI", matches = ".+")
+class PaymentReconcilerBenchmark {
+
+    private static final int PAYMENTS = 4000;
+    private static final Duration GATEWAY_LATENCY = Duration.ofMillis(5);
+    private static final String SECRET = "benchmark_secret";
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private StubPaymentGateway gateway;
+    private PaymentReconciler reconciler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        client = MongoClients.create(System.getenv("TEST_MONGODB_URI"));
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client,
+                "reconcile_bench_" + UUID.randomUUID().toString().substring(0, 8));
+        mongoTemplate = new MongoTemplate(factory);
+
+        MongoIndexManager indexManager = new MongoIndexManager(mongoTemplate);
+        ReflectionTestUtils.setField(indexManager, "outboxRetention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(indexManager, "webhookRetention", Duration.ofDays(30));
+        indexManager.ensureIndexes();
+
+        gateway = new StubPaymentGateway(SECRET, GATEWAY_LATENCY);
+        seed();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BlockingCallExecutor blockingCallExecutor = new BlockingCallExecutor(false, 32, 200);
+        MongoTransactions mongoTransactions = new MongoTransactions(mongoTemplate, new MongoTransactionManager(factory), "auto");
+        PaymentService paymentService = new PaymentService(null, null, mock(UserPrincipalCache.class), gateway,
+                mongoTemplate, mongoTransactions);
+
+        reconciler = new PaymentReconciler(mongoTemplate, gateway, paymentService, blockingCallExecutor, meterRegistry);
+        ReflectionTestUtils.setField(reconciler, "enabled", true);
+        ReflectionTestUtils.setField(reconciler, "pageSize", 100);
+        ReflectionTestUtils.setField(reconciler, "parallelism", 8);
+        ReflectionTestUtils.setField(reconciler, "staleAfter", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(reconciler, "expireAfter", Duration.ofHours(24));
+        ReflectionTestUtils.setField(reconciler, "lease", Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Test
+    void reconcileThroughput() {
+        long started = System.nanoTime();
+        reconciler.sweep();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("reconciled %d payments in %.2fs, %.1f payments/s (gateway latency %dms)%n",
+                PAYMENTS, seconds, PAYMENTS / seconds, GATEWAY_LATENCY.toMillis());
+
+        assertThat(count(Payment.class, "status", "paid")).isEqualTo(PAYMENTS / 2);
+        assertThat(count(Payment.class, "status", "failed")).isEqualTo(PAYMENTS / 4);
+        assertThat(count(Payment.class, "status", "created")).isEqualTo(PAYMENTS / 4);
+        assertThat(count(User.class, "subscriptionPlan", "premium")).isEqualTo(PAYMENTS / 2);
+    }
+
+    private long count(Class<?> type, String field, String value) {
+        return mongoTemplate.count(new Query(Criteria.where(field).is(value)), type);
+    }
+
+    private void seed() throws Exception {
+        // Orders are created concurrently, the stub sleeps on every call
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        List<Future<GatewayOrder>> orders = new ArrayList<>(PAYMENTS);
+        try {
+            for (int i = 0; i < PAYMENTS; i++) {
+                orders.add(pool.submit(() -> gateway.createOrder(1000, "USD", "bench")));
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Payment> payments = new ArrayList<>(PAYMENTS);
+            List<User> users = new ArrayList<>(PAYMENTS);
+            for (int i = 0; i < PAYMENTS; i++) {
+                String userId = "user-" + i;
+                String orderId = orders.get(i).get().id();
+                boolean paid = i % 2 == 0;
+                boolean expired = i % 4 == 1;
+                if (paid) {
+                    String paymentId = "pay_" + i;
+                    assertThat(gateway.verifyPaymentSignature(orderId, paymentId,
+                            Utils.getHash(orderId + "|" + paymentId, SECRET))).isTrue();
+                }
+                users.add(User.builder().id(userId).name("User " + i).email(userId + "@example.com")
+                        .subscriptionPlan("basic").build());
+                payments.add(Payment.builder()
+                        .userId(userId)
+                        .razorpayOrderId(orderId)
+                        .amount(1000)
+                        .currency("USD")
+                        .planType("premium")
+                        .status("created")
+                        .createdAt(expired ? now.minusDays(2) : now.minusHours(1))
+                        .build());
+            }
+            mongoTemplate.insertAll(users);
+            mongoTemplate.insertAll(payments);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
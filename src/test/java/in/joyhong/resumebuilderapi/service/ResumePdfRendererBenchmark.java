@@ -0,0 +1,177 @@
+package in.joyhong.resumebuilderapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.joyhong.resumebuilderapi.document.Resume;
+import in.joyhong.resumebuilderapi.template.TemplateCatalog;
+import in.joyhong.resumebuilderapi.template.TemplateDescriptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Render throughput over a fixed corpus, single-threaded and with concurrent
+ * renders sharing one renderer. Every concurrent render must extract to the
+ * same text as its single-threaded render. Not part of the default test run,
+ * start it with {@code mvn test -Dtest=ResumePdfRendererBenchmark}.
+ */
+class ResumePdfRendererBenchmark {
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+    private static final int THREADS = 8;
+
+    private ResumePdfRenderer renderer;
+    private List<String> templateIds;
+    private List<Resume> corpus;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TemplateCatalog catalog = new TemplateCatalog(new ObjectMapper(), new DefaultResourceLoader(),
+                "classpath:template-catalog/catalog-v1.json", "");
+        renderer = new ResumePdfRenderer(catalog, new SimpleMeterRegistry());
+        templateIds = catalog.templates().stream().map(TemplateDescriptor::id).toList();
+        corpus = List.of(resume("short", 1, 3), resume("typical", 4, 10), resume("long", 15, 30));
+    }
+
+    @Test
+    void renderThroughput() throws Exception {
+        Map<String, String> expectedText = new LinkedHashMap<>();
+        for (Resume resume : corpus) {
+            for (String templateId : templateIds) {
+                expectedText.put(resume.getId() + "/" + templateId, text(renderer.render(resume, templateId)));
+            }
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            renderCorpus();
+        }
+
+        long[] singleThreaded = new long[MEASURED_ROUNDS * corpus.size() * templateIds.size()];
+        int sample = 0;
+        long started = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            for (Resume resume : corpus) {
+                for (String templateId : templateIds) {
+                    long begin = System.nanoTime();
+                    renderer.render(resume, templateId);
+                    singleThreaded[sample++] = System.nanoTime() - begin;
+                }
+            }
+        }
+        report("single thread", singleThreaded, System.nanoTime() - started);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<String> keys = new ArrayList<>();
+            List<Future<byte[]>> renders = new ArrayList<>();
+            long concurrentStarted = System.nanoTime();
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                for (Resume resume : corpus) {
+                    for (String templateId : templateIds) {
+                        keys.add(resume.getId() + "/" + templateId);
+                        renders.add(pool.submit(() -> renderer.render(resume, templateId)));
+                    }
+                }
+            }
+            List<byte[]> pdfs = new ArrayList<>(renders.size());
+            for (Future<byte[]> render : renders) {
+                pdfs.add(render.get());
+            }
+            report(THREADS + " threads", new long[0], System.nanoTime() - concurrentStarted, pdfs.size());
+
+            // Shared font state used to corrupt glyph encoding under contention
+            for (int i = 0; i < pdfs.size(); i++) {
+                assertThat(text(pdfs.get(i)))
+                        .as("text of %s rendered concurrently", keys.get(i))
+                        .isEqualTo(expectedText.get(keys.get(i)));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void renderCorpus() {
+        for (Resume resume : corpus) {
+            for (String templateId : templateIds) {
+                renderer.render(resume, templateId);
+            }
+        }
+    }
+
+    private static String text(byte[] pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+
+    private static void report(String label, long[] latencies, long elapsedNanos) {
+        report(label, latencies, elapsedNanos, latencies.length);
+    }
+
+    private static void report(String label, long[] latencies, long elapsedNanos, int renders) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder line = new StringBuilder(String.format("%-14s %6d renders in %6.2fs, %8.1f renders/s",
+                label, renders, seconds, renders / seconds));
+        if (latencies.length > 0) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            line.append(String.format(", p50 %.2fms, p99 %.2fms",
+                    sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6));
+        }
+        System.out.println(line);
+    }
+
+    private static Resume resume(String id, int jobs, int skills) {
+        return Resume.builder()
+                .id(id)
+                .title("Benchmark " + id)
+                .profileInfo(Resume.ProfileInfo.builder()
+                        .fullName("Jordan Example")
+                        .designation("Senior Software Engineer")
+                        .summary("Builds and operates backend services. ".repeat(jobs * 3))
+                        .build())
+                .contactInfo(Resume.ContactInfo.builder()
+                        .email("jordan@example.com")
+                        .phone("+91 98765 43210")
+                        .location("Bengaluru")
+                        .github("github.com/jordan")
+                        .build())
+                .workExperience(IntStream.range(0, jobs).mapToObj(i -> Resume.WorkExperience.builder()
+                        .company("Company " + i)
+                        .role("Engineer " + i)
+                        .startDate("2015-0" + (i % 9 + 1))
+                        .endDate("2018-0" + (i % 9 + 1))
+                        .description("Designed, shipped and maintained services handling high request volumes. ".repeat(4))
+                        .build()).toList())
+                .education(List.of(Resume.Education.builder()
+                        .degree("B.Tech Computer Science")
+                        .institution("Example Institute of Technology")
+                        .startDate("2010")
+                        .endDate("2014")
+                        .build()))
+                .skills(IntStream.range(0, skills).mapToObj(i -> Resume.Skill.builder()
+                        .name("Skill " + i)
+                        .progress(40 + i % 60)
+                        .build()).toList())
+                .languages(List.of(Resume.Language.builder().name("English").progress(90).build()))
+                .interests(List.of("Reading", "Cycling", "Chess"))
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package in.joyhong.resumebuilderapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.joyhong.resumebuilderapi.document.Resume;
+import in.joyhong.resumebuilderapi.dto.AuthResponse;
+import in.joyhong.resumebuilderapi.dto.ResumePatchRequest;
+import in.joyhong.resumebuilderapi.repository.ResumeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ResumeServicePatchTest {
+
+    private static final Object PRINCIPAL = new Object();
+
+    private MongoTemplate mongoTemplate;
+    private ResumeService resumeService;
+
+    @BeforeEach
+    void setUp() {
+        AuthService authService = mock(AuthService.class);
+        when(authService.getProfile(PRINCIPAL)).thenReturn(AuthResponse.builder().id("user-1").build());
+        mongoTemplate = mock(MongoTemplate.class);
+        resumeService = new ResumeService(mock(ResumeRepository.class), authService, mongoTemplate,
+                mock(ApplicationEventPublisher.class), new ObjectMapper());
+    }
+
+    @Test
+    void setAndPushOnTheSameArrayIsRejected() {
+        assertThatThrownBy(() -> patch(
+                operation("set", "skills", List.of()),
+                operation("push", "skills", Map.of("name", "Java", "progress", 80))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Conflicting operations");
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void setOnAnArrayAndOneOfItsElementsIsRejected() {
+        assertThatThrownBy(() -> patch(
+                operation("pull", "skills", Map.of("name", "Java")),
+                operation("set", "skills[0].name", "Kotlin")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Conflicting operations");
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void repeatedPushesAndSiblingFieldsAreAllowed() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Resume.class)))
+                .thenReturn(Resume.builder().version(4L).build());
+
+        patch(operation("push", "interests", "Chess"),
+                operation("push", "interests", "Cycling"),
+                operation("set", "skills[1].name", "Kotlin"),
+                operation("set", "skills[1].progress", 70));
+    }
+
+    @Test
+    void indexedPathsRequireTheElementToExist() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Resume.class)))
+                .thenReturn(Resume.builder().version(4L).build());
+
+        patch(operation("set", "workExperience[2].description", "Led the platform team"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(Resume.class));
+        assertThat(query.getValue().getQueryObject().toJson()).contains("\"workExperience.2\": {\"$exists\": true}");
+    }
+
+    @Test
+    void indexPastTheEndIsABadRequest() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Resume.class))).thenReturn(Resume.builder().version(3L).build());
+
+        assertThatThrownBy(() -> patch(operation("set", "skills[9].name", "Kotlin")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("skills.9");
+    }
+
+    private void patch(ResumePatchRequest.Operation... operations) {
+        resumeService.patchResume("resume-1", new ResumePatchRequest(List.of(operations)), PRINCIPAL, null);
+    }
+
+    private static ResumePatchRequest.Operation operation(String op, String path, Object value) {
+        return new ResumePatchRequest.Operation(op, path, value);
+    }
+}
@@ -0,0 +1,35 @@
+package in.joyhong.resumebuilderapi.template;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TemplateCatalogTest {
+
+    private TemplateCatalog catalog;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        catalog = new TemplateCatalog(new ObjectMapper(), new DefaultResourceLoader(),
+                "classpath:template-catalog/catalog-v1.json", "");
+    }
+
+    @Test
+    void plansMatchIgnoringCase() {
+        assertThat(catalog.templatesFor("Basic")).isSameAs(catalog.templatesFor("basic"));
+        assertThat(catalog.templatesFor("PREMIUM")).isSameAs(catalog.templatesFor("premium"));
+        assertThat(catalog.templatesFor("Premium").get("isPremium")).isEqualTo(true);
+    }
+
+    @Test
+    void unknownPlansGetTheLowestPlan() {
+        assertThat(catalog.templatesFor(null)).isSameAs(catalog.templatesFor("basic"));
+        assertThat(catalog.templatesFor("enterprise")).isSameAs(catalog.templatesFor("basic"));
+        assertThat(catalog.templatesFor("enterprise").get("isPremium")).isEqualTo(false);
+    }
+}
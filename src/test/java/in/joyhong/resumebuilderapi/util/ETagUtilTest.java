@@ -0,0 +1,39 @@
+package in.joyhong.resumebuilderapi.util;
+
+import in.joyhong.resumebuilderapi.exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ETagUtilTest {
+
+    @Test
+    void ifMatchAcceptsEveryListedVersion() {
+        assertThat(ETagUtil.parseIfMatch("\"3\", \"4\"")).containsExactly(3L, 4L);
+        assertThat(ETagUtil.parseIfMatch("\"7.2\"")).containsExactly(7L);
+    }
+
+    @Test
+    void ifMatchWildcardOrAbsentMeansAnyVersion() {
+        assertThat(ETagUtil.parseIfMatch(null)).isNull();
+        assertThat(ETagUtil.parseIfMatch("*")).isNull();
+        assertThat(ETagUtil.parseIfMatch("\"3\", *")).isNull();
+    }
+
+    @Test
+    void ifMatchSkipsWeakAndForeignTags() {
+        assertThat(ETagUtil.parseIfMatch("W/\"3\", \"abc\", \"5\"")).containsExactly(5L);
+        assertThatThrownBy(() -> ETagUtil.parseIfMatch("W/\"3\""))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
+    @Test
+    void ifNoneMatchComparesTheWholeTag() {
+        String current = ETagUtil.toETag(7, 2);
+        assertThat(current).isEqualTo("\"7.2\"");
+        assertThat(ETagUtil.matchesAny("\"7\"", current)).isFalse();
+        assertThat(ETagUtil.matchesAny("\"6.1\", W/\"7.2\"", current)).isTrue();
+        assertThat(ETagUtil.toETag(7, 0)).isEqualTo(ETagUtil.toETag(7));
+    }
+}